@@ -0,0 +1,80 @@
+package vrp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+class RandomInstance
+{
+    //Seeded random instance with the proportions of VRP.main (30 customers, 10 vehicles of capacity 50
+    //on a 100 x 100 square) scaled so that the customer density stays the same
+
+    public static final long SEED = 151190;
+
+    final int NoOfCustomers;
+    final int NoOfVehicles;
+    final int VehicleCap = 50;
+    final Node[] Nodes;
+    final DistanceProvider Distances;
+
+    RandomInstance(int NoOfCustomers, long seed, String Kind)
+    {
+        Random ran = new Random(seed);
+
+        this.NoOfCustomers = NoOfCustomers;
+        this.NoOfVehicles = Math.max(1, NoOfCustomers / 3);
+        int Span = (int) Math.round(100 * Math.sqrt(NoOfCustomers / 30.0));
+
+        Nodes = new Node[NoOfCustomers + 1];
+        Nodes[0] = new Node(Span / 2, Span / 2);
+        for (int i = 1; i <= NoOfCustomers; i++) {
+            Nodes[i] = new Node(i, ran.nextInt(Span), ran.nextInt(Span), 4 + ran.nextInt(7));
+        }
+
+        int[] NodeX = new int[NoOfCustomers + 1];
+        int[] NodeY = new int[NoOfCustomers + 1];
+        for (int i = 0; i <= NoOfCustomers; i++) {
+            NodeX[i] = Nodes[i].Node_X;
+            NodeY[i] = Nodes[i].Node_Y;
+        }
+        Distances = CreateDistances(Kind, NodeX, NodeY);
+    }
+
+    static DistanceProvider CreateDistances(String Kind, int[] NodeX, int[] NodeY)
+    {
+        //auto = what the solver picks for the size, the others force one representation
+        switch (Kind)
+        {
+            case "auto":       return DistanceProvider.ForCoordinates(NodeX, NodeY);
+            case "matrix":     return new MatrixDistance(new EuclideanDistance(NodeX, NodeY, true));
+            case "triangular": return new TriangularDistance(new EuclideanDistance(NodeX, NodeY, true));
+            case "euclidean":  return new EuclideanDistance(NodeX, NodeY, true);
+            case "cached":     return new CachedRowDistance(new EuclideanDistance(NodeX, NodeY, true), 4096);
+            case "mapped":     return Mapped(new EuclideanDistance(NodeX, NodeY, true));
+            default: throw new IllegalArgumentException("Unknown distance provider " + Kind);
+        }
+    }
+
+    private static DistanceProvider Mapped(DistanceProvider Source) //Float triangle in a temporary file
+    {
+        try {
+            Path File = Files.createTempFile("vrp-distances", ".dist");
+            File.toFile().deleteOnExit();
+            MappedDistance.Write(Source, File, false, true);
+            return MappedDistance.Open(File);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    Solution NewSolution(int CandidateListSize, int Threads)
+    {
+        Solution s = new Solution(NoOfCustomers, NoOfVehicles, VehicleCap);
+        s.SpatialGreedy = true;
+        s.CandidateListSize = CandidateListSize;
+        s.Threads = Threads;
+        return s;
+    }
+}
@@ -0,0 +1,155 @@
+package vrp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Construction, local search and tabu search on seeded random instances.
+ *
+ *   mvn -B package
+ *   java -jar benchmarks/target/benchmarks.jar SolverBenchmark -prof gc
+ *
+ * The distance representation is chosen with -p distance=matrix|triangular|euclidean|cached|mapped,
+ * the default picks it by size like the solver does (50000 customers use on-demand distances).
+ *
+ * Every benchmark reports its throughput (solves per second), the moves evaluated per second
+ * (movesEvaluated counter) and, with -prof gc, the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SolverBenchmark
+{
+    @Param({"100", "1000", "10000", "50000"})
+    public int customers;
+
+    @Param({"auto"})
+    public String distance; //auto, matrix, triangular, euclidean, cached or mapped
+
+    @Param({"20"})
+    public int candidateListSize; //0 = full neighborhood
+
+    @Param({"1"})
+    public int threads;
+
+    @Param({"10"})
+    public int tabuHorizon;
+
+    @Param({"1"})
+    public int operators; //MoveOperators flags: 1 relocate, 2 2-opt, 4 2-opt*, 8 swap, 16 or-opt, 31 all
+
+    @Param({"10000"})
+    public int lnsIterations; //Ruin and recreate iterations of one large neighbourhood search
+
+    @Param({"false"})
+    public boolean traces; //Write the cost trace files while searching
+
+    private RandomInstance Instance;
+    private Solution Sol;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Moves
+    {
+        public long movesEvaluated;
+    }
+
+    @Setup(Level.Trial)
+    public void CreateInstance()
+    {
+        Instance = new RandomInstance(customers, RandomInstance.SEED, distance);
+        if (candidateListSize > 0 && candidateListSize < customers)
+            Instance.Distances.NearestNeighbours(candidateListSize); //Shared by every invocation
+    }
+
+    @Setup(Level.Invocation)
+    public void CreateSolution()
+    {
+        //Searches start from the greedy solution, construction starts from scratch
+        Sol = Instance.NewSolution(candidateListSize, threads);
+        Sol.WriteTraces = traces;
+        Sol.Operators = operators;
+    }
+
+    @Benchmark
+    public double greedy()
+    {
+        Sol.GreedySolution(Instance.Nodes, Instance.Distances);
+        return Sol.Cost;
+    }
+
+    @Benchmark
+    public double savings()
+    {
+        Sol.SavingsSolution(Instance.Nodes, Instance.Distances);
+        return Sol.Cost;
+    }
+
+    @Benchmark
+    public double intraRouteLocalSearch(Moves moves)
+    {
+        Sol.GreedySolution(Instance.Nodes, Instance.Distances);
+        long Before = Sol.MovesEvaluated;
+        Sol.IntraRouteLocalSearch(Instance.Nodes, Instance.Distances);
+        moves.movesEvaluated += Sol.MovesEvaluated - Before;
+        return Sol.Cost;
+    }
+
+    @Benchmark
+    public double interRouteLocalSearch(Moves moves)
+    {
+        Sol.GreedySolution(Instance.Nodes, Instance.Distances);
+        long Before = Sol.MovesEvaluated;
+        Sol.InterRouteLocalSearch(Instance.Nodes, Instance.Distances);
+        moves.movesEvaluated += Sol.MovesEvaluated - Before;
+        return Sol.Cost;
+    }
+
+    @Benchmark
+    public double largeNeighbourhoodSearch(Moves moves) throws InterruptedException
+    {
+        Sol.GreedySolution(Instance.Nodes, Instance.Distances);
+        LargeNeighbourhoodSearch L = new LargeNeighbourhoodSearch();
+        L.Threads = threads;
+        L.Stop = StopCondition.Iterations(lnsIterations);
+        long Before = Sol.MovesEvaluated;
+        L.Solve(Sol, Instance.Distances);
+        moves.movesEvaluated += Sol.MovesEvaluated - Before;
+        return Sol.Cost;
+    }
+
+    @Benchmark
+    public double clusterDecomposition() throws InterruptedException
+    {
+        ClusterDecomposition C = new ClusterDecomposition();
+        C.Threads = threads;
+        C.CandidateListSize = candidateListSize;
+        C.TabuHorizon = tabuHorizon;
+        return C.Solve(Instance.Nodes, Instance.Distances, Instance.NoOfCustomers, Instance.NoOfVehicles, Instance.VehicleCap).Cost;
+    }
+
+    @Benchmark
+    public double islandTabuSearch() throws InterruptedException
+    {
+        IslandTabuSearch T = new IslandTabuSearch();
+        T.Islands = threads;
+        T.Threads = threads;
+        T.CandidateListSize = candidateListSize;
+        T.TabuHorizon = tabuHorizon;
+        return T.Solve(Instance.Nodes, Instance.Distances, Instance.NoOfCustomers, Instance.NoOfVehicles, Instance.VehicleCap).Cost;
+    }
+
+    @Benchmark
+    public double tabuSearch(Moves moves)
+    {
+        Sol.GreedySolution(Instance.Nodes, Instance.Distances);
+        long Before = Sol.MovesEvaluated;
+        Sol.TabuSearch(tabuHorizon, Instance.Distances);
+        moves.movesEvaluated += Sol.MovesEvaluated - Before;
+        return Sol.Cost;
+    }
+}
@@ -0,0 +1,239 @@
+package vrp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+public class BatchSolver
+{
+    //Headless solve of every CVRPLIB .vrp file of a directory in one JVM:
+    //java -cp solver/target/classes vrp.BatchSolver <instances> [<results>] [-threads N] [-tabu N] [-seconds S] [-savings] [-cache DIR] [-mapped]
+    //Files are read and results written on I/O threads (virtual threads when the JVM has them, a cached pool otherwise),
+    //the solves run on Threads platform threads. At most 2 x Threads instances are loaded at once, so a large
+    //directory does not fill the heap. Every instance gets <name>.sol, summary.tsv lists them all,
+    //an instance that cannot be read or solved is reported there and does not stop the batch.
+    //With -cache solutions are kept in DIR across runs: an instance solved before is answered from it, one close to a
+    //solved instance starts from its routes and gets WarmShare of the Tabu iterations and time.
+    //With -mapped an instance that has a <name>.dist file next to it (see MappedDistance) reads its costs from there.
+
+    public int Threads = Runtime.getRuntime().availableProcessors();
+    public int TabuHorizon = 10;
+    public int TabuIterations = 1000;
+    public long TimeLimitMillis = 0; //Per instance, 0 = no limit
+    public int CandidateListSize = 20;
+    public boolean Savings = false;  //Start from the savings construction instead of the greedy one
+    public long Seed = 151190;
+    public SolutionCache Cache = null; //null = every instance starts cold
+    public double WarmShare = 0.25;
+    public boolean Mapped = false;     //Use <name>.dist distance files when they exist
+
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        BatchSolver Batch = new BatchSolver();
+        Path In = null, Out = null;
+        for (int a = 0; a < args.length; a++) {
+            switch (args[a]) {
+                case "-threads": Batch.Threads = Integer.parseInt(args[++a]); break;
+                case "-tabu": Batch.TabuIterations = Integer.parseInt(args[++a]); break;
+                case "-seconds": Batch.TimeLimitMillis = (long) (Double.parseDouble(args[++a]) * 1000); break;
+                case "-savings": Batch.Savings = true; break;
+                case "-cache": Batch.Cache = new SolutionCache(256, Paths.get(args[++a])); break;
+                case "-mapped": Batch.Mapped = true; break;
+                default:
+                    if (In == null) In = Paths.get(args[a]);
+                    else Out = Paths.get(args[a]);
+            }
+        }
+        if (In == null)
+        {
+            System.out.println("Usage: BatchSolver <instance directory> [<result directory>] [-threads N] [-tabu N] [-seconds S] [-savings] [-cache DIR] [-mapped]");
+            return;
+        }
+        if (Out == null) Out = In;
+
+        long Start = System.nanoTime();
+        List<Result> Results = Batch.Run(In, Out);
+        int Solved = 0;
+        for (Result r : Results) {
+            if (r.Error == null) Solved++;
+        }
+        System.out.printf("Solved %d of %d instances in %.1f s, summary in %s%n", Solved, Results.size(),
+                (System.nanoTime() - Start) / 1e9, Out.resolve("summary.tsv"));
+    }
+
+    public static class Result
+    {
+        public String Instance;
+        public int Customers, Vehicles, Routes;
+        public double Cost = Double.NaN;
+        public long Millis;
+        public String Start = "cold"; //cold, warm (from a similar cached instance) or cached
+        public String Error; //null when solved
+
+        String Line()
+        {
+            String CostText = (Error != null) ? "" : ((long) Cost == Cost) ? Long.toString((long) Cost) : Double.toString(Cost);
+            String Status = (Error == null) ? "ok" : Error.replace('\t', ' ').replace('\n', ' ');
+            return Instance + "\t" + Customers + "\t" + Vehicles + "\t" + Routes + "\t" + CostText + "\t" + Millis + "\t" + Start + "\t" + Status;
+        }
+    }
+
+    public List<Result> Run(Path InstanceDir, final Path ResultDir) throws IOException, InterruptedException
+    {
+        List<Path> Instances = new ArrayList<>();
+        try (DirectoryStream<Path> Dir = Files.newDirectoryStream(InstanceDir, "*.vrp")) {
+            for (Path p : Dir) Instances.add(p);
+        }
+        Collections.sort(Instances);
+        Files.createDirectories(ResultDir);
+
+        final ExecutorService Cpu = Executors.newFixedThreadPool(Math.max(1, Threads));
+        final ExecutorService Io = IoExecutor();
+        final Semaphore Loaded = new Semaphore(2 * Math.max(1, Threads));
+        List<Future<Result>> Runs = new ArrayList<>();
+        try {
+            for (final Path File : Instances) {
+                Loaded.acquire();
+                Runs.add(Io.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() throws InterruptedException
+                    {
+                        try {
+                            return Process(File, ResultDir, Cpu);
+                        } finally {
+                            Loaded.release();
+                        }
+                    }
+                }));
+            }
+
+            List<Result> Results = new ArrayList<>();
+            for (int i = 0; i < Runs.size(); i++) {
+                try {
+                    Results.add(Runs.get(i).get());
+                } catch (ExecutionException e) {
+                    Result r = new Result();
+                    r.Instance = Name(Instances.get(i));
+                    r.Error = String.valueOf(e.getCause());
+                    Results.add(r);
+                }
+            }
+
+            StringBuilder Summary = new StringBuilder("Instance\tCustomers\tVehicles\tRoutes\tCost\tMillis\tStart\tStatus\n");
+            for (Result r : Results) {
+                Summary.append(r.Line()).append('\n');
+            }
+            Files.write(ResultDir.resolve("summary.tsv"), Summary.toString().getBytes(StandardCharsets.UTF_8));
+            return Results;
+        } finally {
+            Io.shutdownNow();
+            Cpu.shutdownNow();
+        }
+    }
+
+    private Result Process(Path File, Path ResultDir, ExecutorService Cpu) throws InterruptedException
+    {
+        final Result r = new Result();
+        r.Instance = Name(File);
+        long Start = System.nanoTime(); //Millis is reading plus solving, not the wait for a solver thread
+        try {
+            final CvrpInstance Inst = CvrpLib.Load(File);
+            final DistanceProvider Distances = Distances(File, Inst);
+            r.Millis = (System.nanoTime() - Start) / 1000000;
+            r.Customers = Inst.Dimension - 1;
+            r.Vehicles = Inst.FleetSize();
+
+            final Solution s = Cpu.submit(new Callable<Solution>() {
+                @Override
+                public Solution call()
+                {
+                    long SolveStart = System.nanoTime();
+                    Solution Solved = Solve(Inst, Distances, r.Vehicles, r);
+                    r.Millis += (System.nanoTime() - SolveStart) / 1000000;
+                    return Solved;
+                }
+            }).get();
+
+            CvrpLib.WriteSolution(s, Inst, ResultDir.resolve(r.Instance + ".sol"));
+            r.Cost = s.Cost;
+            for (Vehicle v : s.Vehicles) {
+                if (v.load > 0) r.Routes++;
+            }
+        } catch (IOException e) {
+            r.Error = e.toString();
+        } catch (ExecutionException e) {
+            r.Error = (e.getCause() instanceof IllegalStateException) ? e.getCause().getMessage() : String.valueOf(e.getCause());
+        }
+        return r;
+    }
+
+    Solution Solve(CvrpInstance Inst, DistanceProvider Distances, int NoOfVehicles, Result r)
+    {
+        Node[] Nodes = Inst.ToNodes();
+        StopCondition Stop = StopCondition.Iterations(TabuIterations).WithTimeLimit(TimeLimitMillis);
+
+        Solution s = new Solution(Inst.Dimension - 1, NoOfVehicles, Inst.Capacity);
+        s.CandidateListSize = CandidateListSize;
+        s.SpatialGreedy = !(Distances instanceof MappedDistance); //EUC_2D distances, a distance file may hold road costs
+        s.WriteTraces = false;
+        s.TabuRan = new Random(Seed);
+        int Hit = (Cache == null) ? SolutionCache.Miss : Cache.Lookup(s, Nodes, Distances);
+        if (Hit == SolutionCache.Exact)
+        {
+            r.Start = "cached";
+            return s;
+        }
+        if (Hit == SolutionCache.Near)
+        {
+            r.Start = "warm";
+            Stop = StopCondition.Iterations(Math.max(1, (int) (TabuIterations * WarmShare)))
+                    .WithTimeLimit((TimeLimitMillis > 0) ? Math.max(1, (long) (TimeLimitMillis * WarmShare)) : 0);
+        }
+        else if (Savings)
+            s.SavingsSolution(Nodes, Distances);
+        else
+            s.GreedySolution(Nodes, Distances);
+        s.TabuSearch(TabuHorizon, Distances, Stop);
+        if (Cache != null)
+        {
+            try {
+                Cache.Store(s);
+            } catch (IOException e) {
+                System.out.println("Could not cache " + r.Instance + ": " + e);
+            }
+        }
+        return s;
+    }
+
+    private DistanceProvider Distances(Path File, CvrpInstance Inst) throws IOException
+    {
+        Path Dist = File.resolveSibling(Name(File) + ".dist");
+        if (!Mapped || !Files.exists(Dist))
+            return Inst.Distances();
+        MappedDistance m = MappedDistance.Open(Dist);
+        if (m.Dimension() != Inst.Dimension)
+            throw new IOException(Dist + " has " + m.Dimension() + " nodes, the instance " + Inst.Dimension);
+        return m;
+    }
+
+    private static String Name(Path File)
+    {
+        String n = File.getFileName().toString();
+        return n.endsWith(".vrp") ? n.substring(0, n.length() - 4) : n;
+    }
+
+    private static ExecutorService IoExecutor()
+    {
+        //Virtual threads from Java 21 on, looked up at run time as the solver is built for Java 8
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package vrp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+class ByteScanner
+{
+    private final ByteBuffer Buf;
+    private int Pos;
+    private final int Limit;
+
+    ByteScanner(ByteBuffer buf)
+    {
+        this.Buf = buf;
+        this.Pos = 0;
+        this.Limit = buf.limit();
+    }
+
+    boolean SkipSpaces() //Skip white space including line ends, false at the end of the file
+    {
+        while (Pos < Limit && Buf.get(Pos) <= ' ') Pos++;
+        return Pos < Limit;
+    }
+
+    boolean SkipBlanks() //Skip white space on the current line, false at the line or file end
+    {
+        while (Pos < Limit) {
+            byte b = Buf.get(Pos);
+            if (b == '\n' || b == '\r') return false;
+            if (b > ' ') return true;
+            Pos++;
+        }
+        return false;
+    }
+
+    String Word() //Token up to white space or ':'
+    {
+        int Start = Pos;
+        while (Pos < Limit && Buf.get(Pos) > ' ' && Buf.get(Pos) != ':') Pos++;
+        return Text(Start, Pos);
+    }
+
+    String HeaderValue() //Rest of a "KEY : value" line
+    {
+        SkipBlanks();
+        if (Pos < Limit && Buf.get(Pos) == ':') Pos++;
+        SkipBlanks();
+        int Start = Pos;
+        while (Pos < Limit && Buf.get(Pos) != '\n' && Buf.get(Pos) != '\r') Pos++;
+        int End = Pos;
+        while (End > Start && Buf.get(End - 1) <= ' ') End--;
+        return Text(Start, End);
+    }
+
+    void HeaderValueUpToColon() //Skip "#1:" after Route
+    {
+        while (Pos < Limit && Buf.get(Pos) != ':' && Buf.get(Pos) != '\n') Pos++;
+        if (Pos < Limit && Buf.get(Pos) == ':') Pos++;
+    }
+
+    int Int() throws IOException
+    {
+        double Value = Number();
+        if (Value != (int) Value) throw new IOException("Integer expected at byte " + Pos);
+        return (int) Value;
+    }
+
+    double Number() throws IOException
+    {
+        if (!SkipSpaces()) throw new IOException("Unexpected end of file");
+        boolean Negative = false;
+        byte b = Buf.get(Pos);
+        if (b == '-' || b == '+') {
+            Negative = (b == '-');
+            Pos++;
+        }
+
+        long Mantissa = 0;
+        int Scale = 0, Digits = 0;
+        while (Pos < Limit && (b = Buf.get(Pos)) >= '0' && b <= '9') {
+            Mantissa = Mantissa * 10 + (b - '0');
+            Pos++;
+            Digits++;
+        }
+        if (Pos < Limit && Buf.get(Pos) == '.') {
+            Pos++;
+            while (Pos < Limit && (b = Buf.get(Pos)) >= '0' && b <= '9') {
+                if (Digits < 18) {
+                    Mantissa = Mantissa * 10 + (b - '0');
+                    Scale--;
+                }
+                Pos++;
+                Digits++;
+            }
+        }
+        if (Digits == 0) throw new IOException("Number expected at byte " + Pos);
+        if (Pos < Limit && (Buf.get(Pos) == 'e' || Buf.get(Pos) == 'E')) {
+            Pos++;
+            boolean NegativeExp = false;
+            if (Pos < Limit && (Buf.get(Pos) == '-' || Buf.get(Pos) == '+')) {
+                NegativeExp = (Buf.get(Pos) == '-');
+                Pos++;
+            }
+            int Exp = 0;
+            while (Pos < Limit && (b = Buf.get(Pos)) >= '0' && b <= '9') {
+                Exp = Exp * 10 + (b - '0');
+                Pos++;
+            }
+            Scale += NegativeExp ? -Exp : Exp;
+        }
+
+        double Value = (Scale == 0) ? Mantissa : Mantissa * Math.pow(10, Scale);
+        return Negative ? -Value : Value;
+    }
+
+    private String Text(int Start, int End)
+    {
+        byte[] Bytes = new byte[End - Start];
+        for (int k = 0; k < Bytes.length; k++) Bytes[k] = Buf.get(Start + k);
+        return new String(Bytes, StandardCharsets.US_ASCII);
+    }
+}
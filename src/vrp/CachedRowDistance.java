@@ -0,0 +1,88 @@
+package vrp;
+
+import java.util.Arrays;
+
+class CachedRowDistance extends DistanceProvider
+{
+    //Bounded cache of full rows in front of an expensive symmetric provider, evicted with the clock algorithm.
+    //Rows are immutable once loaded, a reader that finds a slot reused by another row just reloads.
+    private static final class Row
+    {
+        final int Id;
+        final float[] Values;
+
+        Row(int Id, float[] Values)
+        {
+            this.Id = Id;
+            this.Values = Values;
+        }
+    }
+
+    private final DistanceProvider Source;
+    private final int[] SlotOf; //Slot of every row, -1 if not cached
+    private final Row[] Slots;
+    private final boolean[] Referenced;
+    private int Hand;
+
+    CachedRowDistance(DistanceProvider Source, int MaxRows)
+    {
+        this.Source = Source;
+        Origin = Source;
+        SlotOf = new int[Source.Dimension()];
+        Arrays.fill(SlotOf, -1);
+        Slots = new Row[Math.max(1, Math.min(MaxRows, Source.Dimension()))];
+        Referenced = new boolean[Slots.length];
+    }
+
+    @Override
+    public double Distance(int from, int to) //Costs are symmetric, a cached row of either node answers
+    {
+        Row r = Cached(from);
+        if (r != null) return r.Values[to];
+        r = Cached(to);
+        if (r != null) return r.Values[from];
+        return Load(from).Values[to];
+    }
+
+    private Row Cached(int Id)
+    {
+        int s = SlotOf[Id];
+        if (s < 0) return null;
+        Row r = Slots[s];
+        if (r == null || r.Id != Id) return null;
+        Referenced[s] = true;
+        return r;
+    }
+
+    private synchronized Row Load(int from)
+    {
+        int s = SlotOf[from];
+        if (s >= 0 && Slots[s] != null && Slots[s].Id == from)
+            return Slots[s];
+
+        while (Referenced[Hand]) //Second chance for recently used rows
+        {
+            Referenced[Hand] = false;
+            Hand = (Hand + 1) % Slots.length;
+        }
+        s = Hand;
+        Hand = (Hand + 1) % Slots.length;
+
+        float[] Values = new float[SlotOf.length];
+        for (int j = 0; j < Values.length; j++) {
+            Values[j] = (float) Source.Distance(from, j);
+        }
+        Row r = new Row(from, Values);
+        if (Slots[s] != null) SlotOf[Slots[s].Id] = -1;
+        Slots[s] = r;
+        SlotOf[from] = s;
+        Referenced[s] = true;
+        return r;
+    }
+
+    @Override
+    public int Dimension()
+    {
+        return Source.Dimension();
+    }
+}
@@ -0,0 +1,230 @@
+package vrp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.*;
+
+class ClusterDecomposition
+{
+    //Very large instances are split into geographic clusters of about ClusterSize customers, by their angle around the
+    //depot (sweep) or by k-means on the coordinates. Every cluster is solved on its own, side by side, with the greedy
+    //(or savings) construction and Tabu search. The routes are merged into one Solution and an inter-route search over
+    //the candidate lists then polishes them, its moves are nearly all between neighbouring clusters as the routes
+    //inside a cluster are already improved. The work per cluster is fixed, so the total grows about linearly.
+
+    public static final int Sweep = 0, KMeans = 1;
+
+    public int Method = Sweep;
+    public int ClusterSize = 1000;     //Customers per cluster
+    public int KMeansIterations = 10;
+    public int Threads = Runtime.getRuntime().availableProcessors();
+    public long Seed = 151190;
+    public int TabuHorizon = 10;
+    public StopCondition TabuStop = StopCondition.Iterations(200); //Applied to every cluster
+    public int CandidateListSize = 20;
+    public boolean SpatialGreedy = false;
+    public boolean Savings = false;    //Clusters start from the savings construction instead of the greedy one
+    public boolean Polish = true;      //Inter-route search over the merged routes
+    public int PolishOperators = MoveOperators.Relocate;
+
+    public int[][] Members;            //Customers of every cluster of the last Solve
+    public double ClusterCost;         //Merged cost before the polish
+
+    public Solution Solve(final Node[] Nodes, final DistanceProvider CostMatrix,
+                          int NoOfCustomers, int NoOfVehicles, final int VehicleCap) throws InterruptedException
+    {
+        Members = (Method == KMeans) ? KMeansClusters(Nodes, NoOfCustomers) : SweepClusters(Nodes, NoOfCustomers);
+
+        ExecutorService Pool = Executors.newFixedThreadPool(Math.max(1, Math.min(Threads, Members.length)));
+        ArrayList<Future<Solution>> Runs = new ArrayList<>();
+        Solution[] Parts = new Solution[Members.length];
+        try {
+            for (int c = 0; c < Members.length; c++) {
+                final int Cluster = c;
+                Runs.add(Pool.submit(new Callable<Solution>() {
+                    @Override
+                    public Solution call()
+                    {
+                        return SolveCluster(Nodes, CostMatrix, Members[Cluster], VehicleCap, Cluster);
+                    }
+                }));
+            }
+            for (int c = 0; c < Members.length; c++) {
+                try {
+                    Parts[c] = Runs.get(c).get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Cluster " + c + " failed", e.getCause());
+                }
+            }
+        } finally {
+            Pool.shutdownNow();
+        }
+
+        //Merge the routes, cluster by cluster, back into the ids of the instance
+        Solution s = new Solution(NoOfCustomers, NoOfVehicles, VehicleCap);
+        s.CandidateListSize = CandidateListSize;
+        s.WriteTraces = false;
+        s.SetNodes(Nodes);
+        int VehIndex = 0;
+        for (int c = 0; c < Parts.length; c++) {
+            int[] Ids = Ids(Members[c]);
+            for (Vehicle Part : Parts[c].Vehicles) {
+                if (Part.RouteLength <= 2) continue; //No customers
+                if (VehIndex == NoOfVehicles)
+                    throw new IllegalStateException("The clusters need more than " + NoOfVehicles + " vehicles");
+                Vehicle v = s.Vehicles[VehIndex++];
+                for (int k = 0; k < Part.RouteLength; k++) {
+                    int Id = Ids[Part.Route[k]];
+                    if (k > 0) s.Cost += CostMatrix.Distance(v.CurLoc, Id);
+                    v.AddNode(Id, s.Demand[Id]);
+                    s.Routed[Id] = true;
+                }
+            }
+        }
+        ClusterCost = s.Cost;
+        s.Publish("Clusters", 0);
+
+        if (Polish)
+        {
+            s.Operators = PolishOperators;
+            s.InterRouteLocalSearch(Nodes, CostMatrix);
+        }
+        return s;
+    }
+
+    private Solution SolveCluster(Node[] Nodes, DistanceProvider CostMatrix, int[] Customers, int VehicleCap, int Cluster)
+    {
+        int m = Customers.length;
+        int[] Ids = Ids(Customers);
+        Node[] Sub = new Node[m + 1];
+        Sub[0] = new Node(Nodes[0].Node_X, Nodes[0].Node_Y);
+        long Demand = 0;
+        boolean Small = true; //Every demand fits twice, then a route is more than half full when it closes
+        for (int k = 1; k <= m; k++) {
+            Node n = Nodes[Ids[k]];
+            Sub[k] = new Node(k, n.Node_X, n.Node_Y, n.demand);
+            Demand += n.demand;
+            Small &= 2 * n.demand <= VehicleCap;
+        }
+        int Vehicles = Small ? (int) Math.min(m, 2 * ((Demand + VehicleCap - 1) / VehicleCap) + 2) : m;
+
+        DistanceProvider Part = new SubsetDistance(CostMatrix, Ids);
+        if (m + 1 <= DistanceProvider.DenseLimit) Part = new MatrixDistance(Part);
+
+        Solution s = new Solution(m, Vehicles, VehicleCap);
+        s.CandidateListSize = CandidateListSize;
+        s.SpatialGreedy = SpatialGreedy;
+        s.WriteTraces = false;
+        s.TabuRan = new Random(Seed + Cluster * 0x9E3779B97F4A7C15L);
+        if (Savings)
+            s.SavingsSolution(Sub, Part);
+        else
+            s.GreedySolution(Sub, Part);
+        s.TabuSearch(TabuHorizon, Part, TabuStop);
+        return s;
+    }
+
+    private static int[] Ids(int[] Customers) //Sub-problem node k is instance node Ids[k], 0 is the depot
+    {
+        int[] Ids = new int[Customers.length + 1];
+        System.arraycopy(Customers, 0, Ids, 1, Customers.length);
+        return Ids;
+    }
+
+    private int Count(int NoOfCustomers)
+    {
+        return Math.max(1, (NoOfCustomers + ClusterSize - 1) / Math.max(1, ClusterSize));
+    }
+
+    int[][] SweepClusters(Node[] Nodes, int NoOfCustomers)
+    {
+        //Customers ordered by their angle around the depot, cut into arcs of equal size
+        double[] Angle = new double[NoOfCustomers + 1];
+        Integer[] Order = new Integer[NoOfCustomers];
+        for (int i = 1; i <= NoOfCustomers; i++) {
+            Angle[i] = Math.atan2(Nodes[i].Node_Y - Nodes[0].Node_Y, Nodes[i].Node_X - Nodes[0].Node_X);
+            Order[i - 1] = i;
+        }
+        Arrays.sort(Order, (a, b) -> (Angle[a] != Angle[b]) ? Double.compare(Angle[a], Angle[b]) : Integer.compare(a, b));
+
+        int C = Count(NoOfCustomers);
+        int[][] Clusters = new int[C][];
+        for (int c = 0; c < C; c++) {
+            int From = (int) ((long) NoOfCustomers * c / C), To = (int) ((long) NoOfCustomers * (c + 1) / C);
+            Clusters[c] = new int[To - From];
+            for (int k = From; k < To; k++) {
+                Clusters[c][k - From] = Order[k];
+            }
+            Arrays.sort(Clusters[c]);
+        }
+        return Clusters;
+    }
+
+    int[][] KMeansClusters(Node[] Nodes, int NoOfCustomers)
+    {
+        //Lloyd iterations started from the centroids of the sweep clusters, so the result does not depend on a seed
+        int[][] Start = SweepClusters(Nodes, NoOfCustomers);
+        int C = Start.length;
+        double[] CX = new double[C], CY = new double[C];
+        int[] Assigned = new int[NoOfCustomers + 1];
+        for (int c = 0; c < C; c++) {
+            for (int i : Start[c]) {
+                CX[c] += Nodes[i].Node_X;
+                CY[c] += Nodes[i].Node_Y;
+                Assigned[i] = c;
+            }
+            CX[c] /= Math.max(1, Start[c].length);
+            CY[c] /= Math.max(1, Start[c].length);
+        }
+
+        int[] Size = new int[C];
+        for (int it = 0; it < KMeansIterations; it++) {
+            boolean Moved = false;
+            for (int i = 1; i <= NoOfCustomers; i++) {
+                int Best = Assigned[i];
+                double BestD = Double.MAX_VALUE;
+                for (int c = 0; c < C; c++) {
+                    double dx = Nodes[i].Node_X - CX[c], dy = Nodes[i].Node_Y - CY[c];
+                    double d = dx * dx + dy * dy;
+                    if (d < BestD) { BestD = d; Best = c; }
+                }
+                Moved |= Best != Assigned[i];
+                Assigned[i] = Best;
+            }
+            Arrays.fill(CX, 0);
+            Arrays.fill(CY, 0);
+            Arrays.fill(Size, 0);
+            for (int i = 1; i <= NoOfCustomers; i++) {
+                CX[Assigned[i]] += Nodes[i].Node_X;
+                CY[Assigned[i]] += Nodes[i].Node_Y;
+                Size[Assigned[i]]++;
+            }
+            for (int c = 0; c < C; c++) {
+                if (Size[c] > 0) { CX[c] /= Size[c]; CY[c] /= Size[c]; }
+            }
+            if (!Moved) break;
+        }
+
+        //Empty clusters are dropped, customers keep ascending ids inside a cluster
+        Arrays.fill(Size, 0);
+        for (int i = 1; i <= NoOfCustomers; i++) {
+            Size[Assigned[i]]++;
+        }
+        int NonEmpty = 0;
+        int[] Index = new int[C];
+        for (int c = 0; c < C; c++) {
+            Index[c] = (Size[c] > 0) ? NonEmpty++ : -1;
+        }
+        int[][] Clusters = new int[NonEmpty][];
+        int[] Fill = new int[NonEmpty];
+        for (int c = 0; c < C; c++) {
+            if (Size[c] > 0) Clusters[Index[c]] = new int[Size[c]];
+        }
+        for (int i = 1; i <= NoOfCustomers; i++) {
+            int c = Index[Assigned[i]];
+            Clusters[c][Fill[c]++] = i;
+        }
+        return Clusters;
+    }
+}
@@ -0,0 +1,142 @@
+package vrp;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+
+class CostTrace
+{
+    //Cost after every iteration of one search. Costs go into primitive chunks, full chunks are appended
+    //to the trace file by a background writer while the search runs and are reused afterwards.
+    //Searches without a trace keep a null reference, so tracing off costs one branch per iteration.
+
+    public static int ChunkSize = 8192;
+
+    private static final String EndOfLine = "\t" + System.lineSeparator(); //Same layout as the old PrintWriter traces
+
+    //One writer for all traces, chunks of a trace are written in the order they were handed over.
+    //Its thread is not a daemon so pending traces are finished before the JVM exits, it stops when idle.
+    private static final ThreadPoolExecutor Background = new ThreadPoolExecutor(1, 1, 100, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread t = new Thread(r, "cost-trace-writer");
+                    t.setDaemon(false);
+                    return t;
+                }
+            });
+    private static final ConcurrentLinkedQueue<double[]> FreeChunks = new ConcurrentLinkedQueue<>();
+
+    static {
+        Background.allowCoreThreadTimeOut(true);
+    }
+
+    private final String FileName;
+    private final String Header; //First line of the file, null for none
+    private double[] Chunk;
+    private int Fill;
+    private long Count;
+    private double Last;
+
+    private Writer Out; //Only used on the writer thread
+    private boolean Failed; //A write failed, the rest of the trace is dropped (writer thread)
+
+    CostTrace(String FileName, String Header)
+    {
+        this.FileName = FileName;
+        this.Header = Header;
+        this.Chunk = TakeChunk();
+    }
+
+    public void Add(double Cost)
+    {
+        Chunk[Fill++] = Cost;
+        Count++;
+        Last = Cost;
+        if (Fill == Chunk.length)
+            Hand(false);
+    }
+
+    public long Count()
+    {
+        return Count;
+    }
+
+    public double Last()
+    {
+        return Last;
+    }
+
+    public void Close() //Returns at once, the rest of the trace is written in the background
+    {
+        if (Chunk != null)
+            Hand(true);
+    }
+
+    public static void AwaitWritten() throws InterruptedException //Every trace closed so far is on disk
+    {
+        final CountDownLatch Done = new CountDownLatch(1);
+        Background.execute(new Runnable() {
+            @Override
+            public void run()
+            {
+                Done.countDown();
+            }
+        });
+        Done.await();
+    }
+
+    private void Hand(final boolean Closing)
+    {
+        final double[] Full = Chunk;
+        final int Size = Fill;
+        Chunk = Closing ? null : TakeChunk();
+        Fill = 0;
+        Background.execute(new Runnable() {
+            @Override
+            public void run()
+            {
+                Write(Full, Size, Closing);
+            }
+        });
+    }
+
+    private void Write(double[] Values, int Size, boolean Closing)
+    {
+        try {
+            if (Failed)
+                return;
+            if (Out == null)
+            {
+                Out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileName), StandardCharsets.UTF_8), 1 << 16);
+                if (Header != null) Out.write(Header + EndOfLine);
+            }
+            for (int i = 0; i < Size; i++) {
+                Out.write(Double.toString(Values[i]));
+                Out.write(EndOfLine);
+            }
+            if (Closing) Out.close();
+        } catch (IOException e) {
+            //A trace is only a diagnostic, the search does not depend on it. The file is closed now, as the
+            //closing chunk would find Failed and leave it open
+            Failed = true;
+            if (Out != null)
+            {
+                try {
+                    Out.close();
+                } catch (IOException ex) {
+                }
+                Out = null;
+            }
+        } finally {
+            FreeChunks.offer(Values);
+        }
+    }
+
+    private static double[] TakeChunk()
+    {
+        double[] c = FreeChunks.poll();
+        return (c != null && c.length == ChunkSize) ? c : new double[ChunkSize];
+    }
+}
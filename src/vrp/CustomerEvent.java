@@ -0,0 +1,24 @@
+package vrp;
+
+class CustomerEvent
+{
+    //One change of a live plan: a customer to insert or to cancel
+    public final int Customer;
+    public final boolean Insert;
+
+    private CustomerEvent(int Customer, boolean Insert)
+    {
+        this.Customer = Customer;
+        this.Insert = Insert;
+    }
+
+    public static CustomerEvent Insert(int Customer)
+    {
+        return new CustomerEvent(Customer, true);
+    }
+
+    public static CustomerEvent Remove(int Customer)
+    {
+        return new CustomerEvent(Customer, false);
+    }
+}
@@ -0,0 +1,163 @@
+package vrp;
+
+class CustomerGrid
+{
+    //Uniform grid over the customer coordinates for the greedy construction.
+    //Costs are expected to be the Euclidean distance rounded to the nearest integer (or not rounded at all),
+    //so a cell at Euclidean distance d cannot hold a customer cheaper than d - 0.5.
+
+    private final int[] NodeX, NodeY, Demand;
+    private final int GridX, GridY;
+    private final double MinX, MinY, CellW, CellH;
+
+    private final int[] CellStart;     //Customers of cell c are CellNodes[CellStart[c] .. CellStart[c] + CellCount[c])
+    private final int[] CellCount;
+    private final int[] CellNodes;
+    private final int[] CellMinDemand; //Smallest demand left in the cell
+    private final int[] Slot;          //Position of every customer in CellNodes
+
+    public int Unassigned; //Customers still in the grid
+
+    public CustomerGrid(int[] NodeX, int[] NodeY, int[] Demand, boolean[] Routed)
+    {
+        this.NodeX = NodeX;
+        this.NodeY = NodeY;
+        this.Demand = Demand;
+
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        int Customers = 0;
+        for (int i = 1; i < NodeX.length; i++) {
+            if (Routed[i]) continue;
+            Customers++;
+            minX = Math.min(minX, NodeX[i]);
+            maxX = Math.max(maxX, NodeX[i]);
+            minY = Math.min(minY, NodeY[i]);
+            maxY = Math.max(maxY, NodeY[i]);
+        }
+        if (Customers == 0) {
+            minX = maxX = minY = maxY = 0;
+        }
+
+        int Side = Math.max(1, (int) Math.ceil(Math.sqrt(Customers / 2.0))); //About two customers per cell
+        this.GridX = Side;
+        this.GridY = Side;
+        this.MinX = minX;
+        this.MinY = minY;
+        this.CellW = (maxX > minX) ? (maxX - minX) / GridX : 1;
+        this.CellH = (maxY > minY) ? (maxY - minY) / GridY : 1;
+
+        int Cells = GridX * GridY;
+        CellStart = new int[Cells + 1];
+        CellCount = new int[Cells];
+        CellNodes = new int[Customers];
+        CellMinDemand = new int[Cells];
+        Slot = new int[NodeX.length];
+
+        for (int i = 1; i < NodeX.length; i++) {
+            if (!Routed[i]) CellStart[CellOf(i) + 1]++;
+        }
+        for (int c = 0; c < Cells; c++) {
+            CellStart[c + 1] += CellStart[c];
+            CellMinDemand[c] = Integer.MAX_VALUE;
+        }
+        for (int i = 1; i < NodeX.length; i++) {
+            if (Routed[i]) continue;
+            int c = CellOf(i);
+            int pos = CellStart[c] + CellCount[c]++;
+            CellNodes[pos] = i;
+            Slot[i] = pos;
+            CellMinDemand[c] = Math.min(CellMinDemand[c], Demand[i]);
+        }
+        Unassigned = Customers;
+    }
+
+    private int CellOf(int node)
+    {
+        return CellY(NodeY[node]) * GridX + CellX(NodeX[node]);
+    }
+
+    private int CellX(double x)
+    {
+        int cx = (int) ((x - MinX) / CellW);
+        return Math.max(0, Math.min(GridX - 1, cx));
+    }
+
+    private int CellY(double y)
+    {
+        int cy = (int) ((y - MinY) / CellH);
+        return Math.max(0, Math.min(GridY - 1, cy));
+    }
+
+    public void Remove(int node) //The customer was routed
+    {
+        int c = CellOf(node);
+        int last = CellStart[c] + --CellCount[c];
+        int pos = Slot[node];
+        int moved = CellNodes[last];
+        CellNodes[pos] = moved;
+        Slot[moved] = pos;
+        Unassigned--;
+
+        if (Demand[node] == CellMinDemand[c])
+        {
+            int min = Integer.MAX_VALUE;
+            for (int k = CellStart[c]; k < last; k++) {
+                min = Math.min(min, Demand[CellNodes[k]]);
+            }
+            CellMinDemand[c] = min;
+        }
+    }
+
+    public int Nearest(int From, int FreeCapacity, DistanceProvider CostMatrix)
+    {
+        //Cheapest customer with demand <= FreeCapacity, lowest id on equal cost, 0 if none fits
+        double qx = NodeX[From], qy = NodeY[From];
+        int cx = CellX(qx), cy = CellY(qy);
+
+        int Best = 0;
+        double BestCost = Double.MAX_VALUE;
+
+        for (int Ring = 0; ; Ring++) {
+            for (int y = cy - Ring; y <= cy + Ring; y++) {
+                if (y < 0 || y >= GridY) continue;
+                boolean Edge = (y == cy - Ring) || (y == cy + Ring);
+                int Step = Edge ? 1 : 2 * Ring; //Inside rows only have the two border cells
+                for (int x = cx - Ring; x <= cx + Ring; x += Math.max(1, Step)) {
+                    if (x < 0 || x >= GridX) continue;
+                    int c = y * GridX + x;
+                    if (CellCount[c] == 0 || CellMinDemand[c] > FreeCapacity) continue;
+                    if (CellDistance(qx, qy, x, y) - 0.5 > BestCost) continue;
+
+                    for (int k = CellStart[c]; k < CellStart[c] + CellCount[c]; k++) {
+                        int i = CellNodes[k];
+                        if (Demand[i] > FreeCapacity) continue;
+                        double Cost = CostMatrix.Distance(From, i);
+                        if (Cost < BestCost || (Cost == BestCost && i < Best)) {
+                            BestCost = Cost;
+                            Best = i;
+                        }
+                    }
+                }
+            }
+
+            //Lower bound on the distance to any cell outside the rings scanned so far
+            double Bound = Double.MAX_VALUE;
+            if (cx - Ring > 0) Bound = Math.min(Bound, qx - (MinX + (cx - Ring) * CellW));
+            if (cx + Ring < GridX - 1) Bound = Math.min(Bound, (MinX + (cx + Ring + 1) * CellW) - qx);
+            if (cy - Ring > 0) Bound = Math.min(Bound, qy - (MinY + (cy - Ring) * CellH));
+            if (cy + Ring < GridY - 1) Bound = Math.min(Bound, (MinY + (cy + Ring + 1) * CellH) - qy);
+
+            if (Bound == Double.MAX_VALUE || Bound - 0.5 > BestCost)
+                return Best;
+        }
+    }
+
+    private double CellDistance(double qx, double qy, int x, int y)
+    {
+        double Left = MinX + x * CellW, Bottom = MinY + y * CellH;
+        double dx = Math.max(0, Math.max(Left - qx, qx - (Left + CellW)));
+        double dy = Math.max(0, Math.max(Bottom - qy, qy - (Bottom + CellH)));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
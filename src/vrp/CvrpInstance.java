@@ -0,0 +1,49 @@
+package vrp;
+
+class CvrpInstance
+{
+    //A CVRPLIB instance in solver numbering: node 0 is the depot, customers are 1 .. Dimension-1
+
+    public String Name = "";
+    public String EdgeWeightType = "EUC_2D";
+    public int Dimension;    //Nodes including the depot
+    public int Capacity;
+    public int Vehicles;     //Fleet size given by the file (VEHICLES or the -k suffix of the name), 0 if unknown
+    public int DepotFileId;  //Id of the depot in the file, customers keep the file order
+    public int[] NodeX, NodeY, Demand;
+
+    public int TotalDemand()
+    {
+        int Total = 0;
+        for (int i = 1; i < Dimension; i++) Total += Demand[i];
+        return Total;
+    }
+
+    public int FleetSize() //Vehicles to give the solver: the file fleet or the capacity bound, with some slack for the greedy construction
+    {
+        int Bound = (TotalDemand() + Capacity - 1) / Capacity;
+        return (int) Math.ceil(Math.max(Vehicles, Bound) * 1.1) + 1;
+    }
+
+    public int FileIndex(int NodeId) //Zero based position of a solver node in the file, the numbering of .sol files
+    {
+        int Depot = DepotFileId - 1;
+        if (NodeId == 0) return Depot;
+        return (NodeId <= Depot) ? NodeId - 1 : NodeId;
+    }
+
+    public Node[] ToNodes()
+    {
+        Node[] Nodes = new Node[Dimension];
+        Nodes[0] = new Node(NodeX[0], NodeY[0]);
+        for (int i = 1; i < Dimension; i++) {
+            Nodes[i] = new Node(i, NodeX[i], NodeY[i], Demand[i]);
+        }
+        return Nodes;
+    }
+
+    public DistanceProvider Distances() //EUC_2D distances, rounded to the nearest integer as in TSPLIB
+    {
+        return DistanceProvider.ForCoordinates(NodeX, NodeY);
+    }
+}
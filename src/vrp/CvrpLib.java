@@ -0,0 +1,178 @@
+package vrp;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+
+class CvrpLib
+{
+    //Reader for CVRPLIB/TSPLIB .vrp instances and .sol solutions.
+    //The file is memory-mapped and scanned byte by byte: numbers go straight into the instance arrays
+    //and only the few header values become Strings.
+
+    public static CvrpInstance Load(Path File) throws IOException
+    {
+        return Load(Map(File), File.toString());
+    }
+
+    public static CvrpInstance Load(ByteBuffer Data, String Source) throws IOException //Source names the data in errors
+    {
+        ByteScanner In = new ByteScanner(Data);
+        CvrpInstance Inst = new CvrpInstance();
+        int[] FileX = null, FileY = null, FileDemand = null;
+        int Depot = 1;
+
+        while (In.SkipSpaces()) {
+            String Key = In.Word();
+
+            if (Key.equals("NODE_COORD_SECTION")) {
+                FileX = new int[Require(Inst.Dimension, "DIMENSION")];
+                FileY = new int[Inst.Dimension];
+                for (int k = 0; k < Inst.Dimension; k++) {
+                    int Id = Index(In.Int(), Inst.Dimension);
+                    FileX[Id] = (int) Math.round(In.Number()); //The solver works on integer coordinates
+                    FileY[Id] = (int) Math.round(In.Number());
+                }
+            }
+            else if (Key.equals("DEMAND_SECTION")) {
+                FileDemand = new int[Require(Inst.Dimension, "DIMENSION")];
+                for (int k = 0; k < Inst.Dimension; k++) {
+                    int Id = Index(In.Int(), Inst.Dimension);
+                    FileDemand[Id] = In.Int();
+                }
+            }
+            else if (Key.equals("DEPOT_SECTION")) {
+                Depot = In.Int();
+                while (In.Int() != -1) {
+                    //Only single depot instances are supported, further depots are ignored
+                }
+            }
+            else if (Key.equals("EOF")) {
+                break;
+            }
+            else {
+                String Value = In.HeaderValue();
+                if (Key.equals("NAME")) Inst.Name = Value;
+                else if (Key.equals("DIMENSION")) Inst.Dimension = Integer.parseInt(Value);
+                else if (Key.equals("CAPACITY")) Inst.Capacity = Integer.parseInt(Value);
+                else if (Key.equals("VEHICLES")) Inst.Vehicles = Integer.parseInt(Value);
+                else if (Key.equals("EDGE_WEIGHT_TYPE")) Inst.EdgeWeightType = Value;
+            }
+        }
+
+        if (FileX == null || FileDemand == null)
+            throw new IOException(Source + ": NODE_COORD_SECTION and DEMAND_SECTION are required");
+        if (!Inst.EdgeWeightType.equals("EUC_2D"))
+            throw new IOException(Source + ": unsupported EDGE_WEIGHT_TYPE " + Inst.EdgeWeightType);
+        Require(Inst.Capacity, "CAPACITY");
+        if (Inst.Vehicles == 0) Inst.Vehicles = FleetFromName(Inst.Name);
+
+        //Move the depot to position 0, customers keep their order
+        int D = Index(Depot, Inst.Dimension);
+        Inst.DepotFileId = Depot;
+        Inst.NodeX = DepotFirst(FileX, D);
+        Inst.NodeY = DepotFirst(FileY, D);
+        Inst.Demand = DepotFirst(FileDemand, D);
+        return Inst;
+    }
+
+    public static ArrayList<int[]> LoadSolution(CvrpInstance Inst, Path File, double[] Cost) throws IOException
+    {
+        //Routes of a .sol file in solver node ids, without depots. Cost[0] receives the reported cost if given.
+        ByteScanner In = new ByteScanner(Map(File));
+        ArrayList<int[]> Routes = new ArrayList<>();
+        int[] SolverId = new int[Inst.Dimension];
+        for (int i = 0; i < Inst.Dimension; i++) SolverId[Inst.FileIndex(i)] = i;
+
+        int[] Buffer = new int[Inst.Dimension];
+        while (In.SkipSpaces()) {
+            String Key = In.Word();
+            if (Key.equals("Route")) {
+                In.HeaderValueUpToColon();
+                int Length = 0;
+                while (In.SkipBlanks()) {
+                    Buffer[Length++] = SolverId[Index(In.Int() + 1, Inst.Dimension)];
+                }
+                int[] Route = new int[Length];
+                System.arraycopy(Buffer, 0, Route, 0, Length);
+                Routes.add(Route);
+            }
+            else if (Key.equalsIgnoreCase("Cost")) {
+                double c = In.Number();
+                if (Cost != null && Cost.length > 0) Cost[0] = c;
+            }
+            else {
+                In.HeaderValue();
+            }
+        }
+        return Routes;
+    }
+
+    public static void WriteSolution(Solution s, CvrpInstance Inst, Path File) throws IOException
+    {
+        Files.write(File, SolutionText(s, Inst).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static String SolutionText(Solution s, CvrpInstance Inst)
+    {
+        //CVRPLIB .sol format, empty vehicles are left out
+        StringBuilder Out = new StringBuilder();
+        int RouteNo = 0;
+        for (int j = 0; j < s.NoOfVehicles; j++) {
+            Vehicle v = s.Vehicles[j];
+            StringBuilder Line = new StringBuilder();
+            for (int k = 0; k < v.RouteLength; k++) {
+                if (v.Route[k] != 0) Line.append(' ').append(Inst.FileIndex(v.Route[k]));
+            }
+            if (Line.length() > 0) {
+                Out.append("Route #").append(++RouteNo).append(':').append(Line).append('\n');
+            }
+        }
+        Out.append("Cost ").append((long) s.Cost == s.Cost ? Long.toString((long) s.Cost) : Double.toString(s.Cost)).append('\n');
+        return Out.toString();
+    }
+
+    static MappedByteBuffer Map(Path File) throws IOException
+    {
+        try (FileChannel Channel = FileChannel.open(File, StandardOpenOption.READ)) {
+            return Channel.map(FileChannel.MapMode.READ_ONLY, 0, Channel.size());
+        }
+    }
+
+    private static int Require(int Value, String Key) throws IOException
+    {
+        if (Value <= 0) throw new IOException(Key + " must be given before the data sections");
+        return Value;
+    }
+
+    private static int Index(int FileId, int Dimension) throws IOException
+    {
+        if (FileId < 1 || FileId > Dimension) throw new IOException("Node " + FileId + " outside 1.." + Dimension);
+        return FileId - 1;
+    }
+
+    private static int[] DepotFirst(int[] Values, int Depot)
+    {
+        if (Depot != 0) {
+            int DepotValue = Values[Depot];
+            System.arraycopy(Values, 0, Values, 1, Depot);
+            Values[0] = DepotValue;
+        }
+        return Values;
+    }
+
+    private static int FleetFromName(String Name) //"A-n32-k5" -> 5
+    {
+        int k = Name.lastIndexOf("-k");
+        if (k < 0) return 0;
+        int Fleet = 0;
+        for (int p = k + 2; p < Name.length() && Character.isDigit(Name.charAt(p)); p++) {
+            Fleet = Fleet * 10 + (Name.charAt(p) - '0');
+        }
+        return Fleet;
+    }
+}
@@ -0,0 +1,69 @@
+package vrp;
+
+abstract class DistanceProvider
+{
+    //Cost between two nodes (0 is the depot). The searches only read costs, so every implementation
+    //must allow concurrent Distance calls from the ForkJoin workers.
+
+    public static int DenseLimit = 4096;       //Largest dimension that gets a full n x n double matrix
+    public static int TriangularLimit = 16384; //Largest dimension that gets a packed float triangle
+
+    private int[][] NearestLists; //Candidate lists, shared by every Solution using this provider
+    private int NearestK;
+    protected DistanceProvider Origin; //Provider this one was copied from, builds the candidate lists
+
+    public static DistanceProvider ForCoordinates(int[] NodeX, int[] NodeY) //Rounded Euclidean distances
+    {
+        EuclideanDistance Euclidean = new EuclideanDistance(NodeX, NodeY, true);
+        if (NodeX.length <= DenseLimit)
+            return new MatrixDistance(Euclidean);
+        else if (NodeX.length <= TriangularLimit)
+            return new TriangularDistance(Euclidean);
+        else
+            return Euclidean;
+    }
+
+    public abstract double Distance(int from, int to);
+
+    public abstract int Dimension();
+
+    public synchronized int[][] NearestNeighbours(int k) //The k nearest other nodes of every node, sorted by distance
+    {
+        if (NearestLists == null || NearestK != k)
+        {
+            NearestLists = BuildNearestNeighbours(k);
+            NearestK = k;
+        }
+        return NearestLists;
+    }
+
+    protected int[][] BuildNearestNeighbours(int k)
+    {
+        if (Origin != null)
+            return Origin.BuildNearestNeighbours(k);
+
+        int Dimension = Dimension();
+        int[][] Lists = new int[Dimension][k];
+        double[] CandDist = new double[k];
+
+        for (int u = 0; u < Dimension; u++) {
+            int[] Cand = Lists[u];
+            int Size = 0;
+            for (int v = 0; v < Dimension; v++) {
+                if (v == u) continue;
+                double d = Distance(u, v);
+                if (Size == k && d >= CandDist[k - 1]) continue;
+
+                int pos = (Size < k) ? Size++ : k - 1;
+                while (pos > 0 && CandDist[pos - 1] > d) { //Insertion into the sorted list
+                    CandDist[pos] = CandDist[pos - 1];
+                    Cand[pos] = Cand[pos - 1];
+                    pos--;
+                }
+                CandDist[pos] = d;
+                Cand[pos] = v;
+            }
+        }
+        return Lists;
+    }
+}
@@ -0,0 +1,233 @@
+package vrp;
+
+import java.util.Arrays;
+
+class DynamicUpdates
+{
+    //Customers joining or leaving a solved plan. A new customer goes to its cheapest feasible position next to one of
+    //its candidate list neighbours (all positions only when none of those fit), a cancelled one is cut out of its
+    //route. Then a relocation descent runs over the changed route and the routes of the customer's neighbours only,
+    //so the work per event depends on the candidate list size and the route lengths, not on the instance size.
+    //Customers are nodes of the instance, a plan may leave some of them out (Routed is false) until they are inserted.
+
+    public static int Neighbours = 20;  //Candidate list size used when the solution has none (or one as large as the instance)
+    public int RepairMoves = 50;        //Improving relocations at most per event
+
+    private final Solution Sol;
+    private int[] Repair = new int[16]; //Vehicle indexes of the routes the repair may change
+    private int RepairCount;
+    private boolean[] InRepair;
+
+    DynamicUpdates(Solution Sol)
+    {
+        this.Sol = Sol;
+    }
+
+    private void Prepare(DistanceProvider CostMatrix)
+    {
+        //The route index (RouteOf, PositionOf) is only kept with candidate lists. A solution without them gets lists
+        //for the updates only, its CandidateListSize is left as it is so the next search prepares its own neighbourhood.
+        int Dimension = CostMatrix.Dimension();
+        if (Sol.CandidateLists == null || Sol.RouteOf == null || Sol.RouteOf.length != Dimension)
+        {
+            int CandidateListSize = Sol.CandidateListSize;
+            if (CandidateListSize <= 0 || CandidateListSize >= Dimension - 1)
+                Sol.CandidateListSize = Math.min(Neighbours, Dimension - 2);
+            try {
+                Sol.PrepareNeighborhood(CostMatrix);
+            } finally {
+                Sol.CandidateListSize = CandidateListSize;
+            }
+            if (Sol.CandidateLists == null)
+                throw new IllegalStateException("Incremental updates need at least 3 nodes");
+        }
+        if (InRepair == null || InRepair.length != Sol.Vehicles.length)
+            InRepair = new boolean[Sol.Vehicles.length];
+        Sol.JournalLength = -1; //A paused Tabu search takes the changed routes as its best
+    }
+
+    public double Insert(int Customer, DistanceProvider CostMatrix)
+    {
+        Prepare(CostMatrix);
+        if (Sol.Routed[Customer])
+            throw new IllegalArgumentException("Customer " + Customer + " is already routed");
+        int d = Sol.Demand[Customer];
+
+        double BestDelta = Double.MAX_VALUE;
+        int BestRoute = -1, BestIndex = -1; //Customer goes after BestIndex of BestRoute
+
+        for (int u : Sol.CandidateLists[Customer]) {
+            if (u == 0 || !Sol.Routed[u]) continue;
+            int r = Sol.RouteOf[u], p = Sol.PositionOf[u];
+            Vehicle v = Sol.Vehicles[r];
+            if (!v.CheckIfFits(d)) continue;
+            for (int j = p - 1; j <= p; j++) { //Before or after the neighbour
+                double Delta = InsertionCost(v, j, Customer, CostMatrix);
+                if (Delta < BestDelta || (Delta == BestDelta && (r < BestRoute || (r == BestRoute && j < BestIndex)))) {
+                    BestDelta = Delta;
+                    BestRoute = r;
+                    BestIndex = j;
+                }
+            }
+        }
+        int Empty = EmptyVehicle();
+        if (Empty >= 0 && d <= Sol.Vehicles[Empty].capacity)
+        {
+            double Delta = 2 * CostMatrix.Distance(0, Customer);
+            if (Delta < BestDelta) {
+                BestDelta = Delta;
+                BestRoute = Empty;
+                BestIndex = -1;
+            }
+        }
+
+        if (BestRoute == -1) //No neighbour has room, try every position
+        {
+            for (int r = 0; r < Sol.Vehicles.length; r++) {
+                Vehicle v = Sol.Vehicles[r];
+                if (v.RouteLength < 2 || !v.CheckIfFits(d)) continue;
+                for (int j = 0; j < v.RouteLength - 1; j++) {
+                    double Delta = InsertionCost(v, j, Customer, CostMatrix);
+                    if (Delta < BestDelta) {
+                        BestDelta = Delta;
+                        BestRoute = r;
+                        BestIndex = j;
+                    }
+                }
+            }
+            if (BestRoute == -1)
+                throw new IllegalStateException("Customer " + Customer + " does not fit in any vehicle");
+        }
+
+        Vehicle v = Sol.Vehicles[BestRoute];
+        if (BestIndex == -1)
+        {
+            v.Clear();
+            v.AddNode(0, 0);
+            v.AddNode(Customer, d);
+            v.AddNode(0, 0);
+        }
+        else
+        {
+            v.InsertNode(BestIndex + 1, Customer);
+            v.load += d;
+        }
+        Sol.Routed[Customer] = true;
+        Sol.RouteUpdated(BestRoute);
+        Sol.Cost += BestDelta;
+
+        return BestDelta + Repair(Customer, BestRoute, CostMatrix);
+    }
+
+    public double Remove(int Customer, DistanceProvider CostMatrix)
+    {
+        Prepare(CostMatrix);
+        if (!Sol.Routed[Customer])
+            throw new IllegalArgumentException("Customer " + Customer + " is not routed");
+        int r = Sol.RouteOf[Customer], p = Sol.PositionOf[Customer];
+        Vehicle v = Sol.Vehicles[r];
+        int Prev = v.Route[p - 1], Next = v.Route[p + 1];
+        double Delta = CostMatrix.Distance(Prev, Next) - CostMatrix.Distance(Prev, Customer) - CostMatrix.Distance(Customer, Next);
+
+        v.RemoveNode(p);
+        v.load -= Sol.Demand[Customer];
+        if (v.load == 0 && OnlyDepots(v))
+            v.Clear(); //Back to an unused vehicle
+        Sol.Routed[Customer] = false;
+        Sol.RouteUpdated(r);
+        Sol.Cost += Delta;
+
+        return Delta + Repair(Customer, r, CostMatrix);
+    }
+
+    private static double InsertionCost(Vehicle v, int j, int Customer, DistanceProvider CostMatrix)
+    {
+        int a = v.Route[j], b = v.Route[j + 1];
+        return CostMatrix.Distance(a, Customer) + CostMatrix.Distance(Customer, b) - CostMatrix.Distance(a, b);
+    }
+
+    private static boolean OnlyDepots(Vehicle v)
+    {
+        for (int k = 0; k < v.RouteLength; k++) {
+            if (v.Route[k] != 0) return false;
+        }
+        return true;
+    }
+
+    private int EmptyVehicle()
+    {
+        for (int r = 0; r < Sol.Vehicles.length; r++) {
+            if (Sol.Vehicles[r].RouteLength == 0) return r;
+        }
+        return -1;
+    }
+
+    private double Repair(int Customer, int Changed, DistanceProvider CostMatrix)
+    {
+        //Best improving relocation between the changed route and the routes around the customer, until none improves
+        RepairCount = 0;
+        AddRepairRoute(Changed);
+        for (int u : Sol.CandidateLists[Customer]) {
+            if (u != 0 && Sol.Routed[u]) AddRepairRoute(Sol.RouteOf[u]);
+        }
+
+        double Total = 0;
+        for (int m = 0; m < RepairMoves; m++) {
+            double BestCost = -1e-9;
+            int BestFrom = -1, BestA = -1, BestTo = -1, BestB = -1;
+            long Evaluated = 0;
+
+            for (int x = 0; x < RepairCount; x++) {
+                int From = Repair[x];
+                Vehicle vf = Sol.Vehicles[From];
+                int[] rf = vf.Route;
+                for (int i = 1; i < vf.RouteLength - 1; i++) {
+                    int Moving = rf[i];
+                    if (Moving == 0) continue;
+                    double RemovalGain = CostMatrix.Distance(rf[i - 1], rf[i + 1])
+                            - CostMatrix.Distance(rf[i - 1], Moving) - CostMatrix.Distance(Moving, rf[i + 1]);
+
+                    for (int y = 0; y < RepairCount; y++) {
+                        int To = Repair[y];
+                        Vehicle vt = Sol.Vehicles[To];
+                        if (To != From && !vt.CheckIfFits(Sol.Demand[Moving])) continue;
+                        int[] rt = vt.Route;
+                        for (int j = 0; j < vt.RouteLength - 1; j++) {
+                            if (To == From && (j == i || j == i - 1)) continue;
+                            double c = RemovalGain + CostMatrix.Distance(rt[j], Moving) + CostMatrix.Distance(Moving, rt[j + 1])
+                                    - CostMatrix.Distance(rt[j], rt[j + 1]);
+                            Evaluated++;
+                            if (c < BestCost) {
+                                BestCost = c;
+                                BestFrom = From;
+                                BestA = i;
+                                BestTo = To;
+                                BestB = j;
+                            }
+                        }
+                    }
+                }
+            }
+            Sol.MovesEvaluated += Evaluated;
+            if (BestFrom == -1) break;
+
+            Sol.ApplyRelocate(BestFrom, BestA, BestTo, BestB);
+            Sol.Cost += BestCost;
+            Total += BestCost;
+        }
+
+        for (int x = 0; x < RepairCount; x++) {
+            InRepair[Repair[x]] = false;
+        }
+        return Total;
+    }
+
+    private void AddRepairRoute(int r)
+    {
+        if (InRepair[r] || Sol.Vehicles[r].RouteLength < 2) return;
+        InRepair[r] = true;
+        if (RepairCount == Repair.length)
+            Repair = Arrays.copyOf(Repair, 2 * Repair.length);
+        Repair[RepairCount++] = r;
+    }
+}
@@ -0,0 +1,109 @@
+package vrp;
+
+import java.util.Arrays;
+
+class EuclideanDistance extends DistanceProvider
+{
+    //Computed on every call from the coordinates, no memory beyond the instance itself
+    private final int[] NodeX, NodeY;
+    private final boolean Round;
+
+    EuclideanDistance(int[] NodeX, int[] NodeY, boolean Round)
+    {
+        this.NodeX = NodeX;
+        this.NodeY = NodeY;
+        this.Round = Round;
+    }
+
+    @Override
+    public double Distance(int from, int to)
+    {
+        double Delta_x = NodeX[from] - NodeX[to];
+        double Delta_y = NodeY[from] - NodeY[to];
+        double distance = Math.sqrt((Delta_x * Delta_x) + (Delta_y * Delta_y));
+        return Round ? Math.round(distance) : distance;
+    }
+
+    @Override
+    public int Dimension()
+    {
+        return NodeX.length;
+    }
+
+    @Override
+    protected int[][] BuildNearestNeighbours(int k) //Ring search over a uniform grid instead of all n^2 pairs
+    {
+        int n = NodeX.length;
+        int MinX = Integer.MAX_VALUE, MinY = Integer.MAX_VALUE, MaxX = Integer.MIN_VALUE, MaxY = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            MinX = Math.min(MinX, NodeX[i]); MaxX = Math.max(MaxX, NodeX[i]);
+            MinY = Math.min(MinY, NodeY[i]); MaxY = Math.max(MaxY, NodeY[i]);
+        }
+
+        //About two nodes per cell
+        double Area = Math.max(1.0, (double) (MaxX - MinX + 1) * (MaxY - MinY + 1));
+        double CellSize = Math.max(1.0, Math.sqrt(2.0 * Area / n));
+        int Cols = (int) ((MaxX - MinX) / CellSize) + 1;
+        int Rows = (int) ((MaxY - MinY) / CellSize) + 1;
+
+        int[] CellOf = new int[n];
+        int[] CellStart = new int[Cols * Rows + 1];
+        for (int i = 0; i < n; i++) {
+            CellOf[i] = (int) ((NodeY[i] - MinY) / CellSize) * Cols + (int) ((NodeX[i] - MinX) / CellSize);
+            CellStart[CellOf[i] + 1]++;
+        }
+        for (int c = 0; c < Cols * Rows; c++) {
+            CellStart[c + 1] += CellStart[c];
+        }
+        int[] CellNodes = new int[n];
+        int[] Fill = Arrays.copyOf(CellStart, Cols * Rows);
+        for (int i = 0; i < n; i++) {
+            CellNodes[Fill[CellOf[i]]++] = i; //Ascending ids inside every cell
+        }
+
+        int[][] Lists = new int[n][k];
+        double[] CandDist = new double[k];
+        for (int u = 0; u < n; u++) {
+            int[] Cand = Lists[u];
+            int Size = 0;
+            int Col = CellOf[u] % Cols, Row = CellOf[u] / Cols;
+
+            for (int r = 0; ; r++) {
+                //Nodes outside rings 0..r-1 are at least (r-1) cells away
+                if (Size == k)
+                {
+                    double Bound = (r - 1) * CellSize;
+                    if ((Round ? Math.round(Bound) : Bound) > CandDist[k - 1]) break;
+                }
+                if (r > Cols && r > Rows) break;
+
+                for (int y = Row - r; y <= Row + r; y++) {
+                    if (y < 0 || y >= Rows) continue;
+                    boolean Edge = (y == Row - r || y == Row + r);
+                    for (int x = Col - r; x <= Col + r; x += Edge ? 1 : 2 * r) {
+                        if (x < 0 || x >= Cols) continue;
+                        int c = y * Cols + x;
+                        for (int p = CellStart[c]; p < CellStart[c + 1]; p++) {
+                            int v = CellNodes[p];
+                            if (v == u) continue;
+                            double d = Distance(u, v);
+                            //Same order as the full scan: by distance, ties by the lower id
+                            if (Size == k && (d > CandDist[k - 1] || (d == CandDist[k - 1] && v > Cand[k - 1]))) continue;
+
+                            int pos = (Size < k) ? Size++ : k - 1;
+                            while (pos > 0 && (CandDist[pos - 1] > d || (CandDist[pos - 1] == d && Cand[pos - 1] > v))) {
+                                CandDist[pos] = CandDist[pos - 1];
+                                Cand[pos] = Cand[pos - 1];
+                                pos--;
+                            }
+                            CandDist[pos] = d;
+                            Cand[pos] = v;
+                        }
+                        if (r == 0) break;
+                    }
+                }
+            }
+        }
+        return Lists;
+    }
+}
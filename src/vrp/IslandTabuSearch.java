@@ -0,0 +1,244 @@
+package vrp;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+class IslandTabuSearch
+{
+    //Cooperative Tabu search: every island runs its own Tabu search (horizon, tenure delays and seed of its own) and
+    //every ExchangeInterval iterations it goes back to its best solution and offers it to the elite. The elite is one
+    //AtomicReference replaced by compare-and-set, so islands never wait for each other to exchange. An island behind
+    //the elite continues from a copy of it and keeps its own Tabu memory, so it does not retrace the other's steps.
+    //Synchronous runs the islands epoch by epoch and only reads the elite between epochs, then the result depends on
+    //Seed alone. Otherwise every island runs through and takes whatever elite is there at its exchange.
+
+    public int Islands = Runtime.getRuntime().availableProcessors();
+    public int Threads = Runtime.getRuntime().availableProcessors(); //Islands running at the same time
+    public long Seed = 151190;
+    public int TabuHorizon = 10;         //Island 0 uses it, the others spread around it
+    public int ExchangeInterval = 100;   //Tabu iterations between two exchanges
+    public boolean RestartFromElite = true;
+    public boolean Synchronous = true;
+    public int CandidateListSize = 0;
+    public boolean SpatialGreedy = false;
+    public StopCondition Stop = StopCondition.Iterations(1000); //Applied to every island
+
+    public double[] Costs; //Best cost of every island of the last Solve
+    public int BestIsland;
+    public int Restarts;   //Times an island continued from the elite
+
+    private final AtomicReference<Elite> Exchange = new AtomicReference<>();
+
+    public int Horizon(int Island) //TabuHorizon, -1, +1, -2, +2, ...
+    {
+        int Offset = (Island + 1) / 2;
+        int H = (Island % 2 == 1) ? TabuHorizon - Offset : TabuHorizon + Offset;
+        return Math.max(1, H);
+    }
+
+    public int RandomDelay(int Island) //5, 3, 7, 5, 3, 7, ...
+    {
+        return 3 + 2 * ((Island + 1) % 3);
+    }
+
+    public long Seed(int Island)
+    {
+        return Seed + Island * 0x9E3779B97F4A7C15L;
+    }
+
+    public Solution Solve(final Node[] Nodes, final DistanceProvider CostMatrix,
+                          final int NoOfCustomers, final int NoOfVehicles, final int VehicleCap) throws InterruptedException
+    {
+        final long StartNanos = System.nanoTime();
+        Exchange.set(null);
+        Restarts = 0;
+
+        final Island[] All = new Island[Islands];
+        for (int i = 0; i < Islands; i++) {
+            Solution s = new Solution(NoOfCustomers, NoOfVehicles, VehicleCap);
+            s.CandidateListSize = CandidateListSize;
+            s.SpatialGreedy = SpatialGreedy;
+            s.WriteTraces = false;
+            s.TabuRan = new Random(Seed(i));
+            s.TabuRandomDelay = RandomDelay(i);
+            if (i > 0) s.GreedyRan = new Random(~Seed(i));
+            All[i] = new Island(i, s);
+        }
+
+        ExecutorService Pool = Executors.newFixedThreadPool(Math.max(1, Math.min(Threads, Islands)));
+        try {
+            //The greedy starts are built side by side as well
+            Run(Pool, All, new Step() {
+                @Override
+                public void Run(Island I)
+                {
+                    I.Sol.GreedySolution(Nodes, CostMatrix);
+                    I.Sol.StartTabuSearch(CostMatrix);
+                }
+            });
+
+            if (Synchronous)
+            {
+                while (!AllDone(All)) {
+                    final Elite Snapshot = Exchange.get(); //Offers of this epoch are seen by the next one
+                    Run(Pool, All, new Step() {
+                        @Override
+                        public void Run(Island I)
+                        {
+                            if (!I.Done) I.Epoch(Snapshot, CostMatrix, StartNanos);
+                        }
+                    });
+                }
+            }
+            else
+            {
+                Run(Pool, All, new Step() {
+                    @Override
+                    public void Run(Island I)
+                    {
+                        while (!I.Done) I.Epoch(Exchange.get(), CostMatrix, StartNanos);
+                    }
+                });
+            }
+        } finally {
+            Pool.shutdownNow();
+        }
+
+        //Lowest cost wins, ties keep the lower island
+        Costs = new double[Islands];
+        Solution Best = null;
+        for (int i = 0; i < Islands; i++) {
+            Solution s = All[i].Sol;
+            s.FinishTabuSearch(CostMatrix);
+            Costs[i] = s.Cost;
+            if (Best == null || s.Cost < Best.Cost) {
+                Best = s;
+                BestIsland = i;
+            }
+        }
+        return Best;
+    }
+
+    private static boolean AllDone(Island[] All)
+    {
+        for (Island I : All) {
+            if (!I.Done) return false;
+        }
+        return true;
+    }
+
+    private interface Step
+    {
+        void Run(Island I);
+    }
+
+    private static void Run(ExecutorService Pool, Island[] All, final Step Work) throws InterruptedException
+    {
+        ArrayList<Future<?>> Runs = new ArrayList<>();
+        for (final Island I : All) {
+            Runs.add(Pool.submit(new Runnable() {
+                @Override
+                public void run()
+                {
+                    Work.Run(I);
+                }
+            }));
+        }
+        for (int i = 0; i < Runs.size(); i++) {
+            try {
+                Runs.get(i).get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Island " + i + " failed", e.getCause());
+            }
+        }
+    }
+
+    private void Offer(Elite Candidate) //Lock free, the elite only ever gets better
+    {
+        while (true) {
+            Elite Current = Exchange.get();
+            if (Current != null && !Candidate.Beats(Current))
+                return;
+            if (Exchange.compareAndSet(Current, Candidate))
+                return;
+        }
+    }
+
+    private synchronized void CountRestart()
+    {
+        Restarts++;
+    }
+
+    private static final class Elite
+    {
+        final double Cost;
+        final int Island;
+        final Vehicle[] Routes; //Never changed once offered
+
+        Elite(double Cost, int Island, Vehicle[] Routes)
+        {
+            this.Cost = Cost;
+            this.Island = Island;
+            this.Routes = Routes;
+        }
+
+        boolean Beats(Elite Other) //Ties keep the lower island, so the elite does not depend on the order of offers
+        {
+            if (Cost != Other.Cost) return Cost < Other.Cost;
+            return Island < Other.Island;
+        }
+    }
+
+    private final class Island
+    {
+        final int Index;
+        final Solution Sol;
+        boolean Done;
+        double Offered = Double.MAX_VALUE; //Cost of the last solution offered to the elite
+
+        Island(int Index, Solution Sol)
+        {
+            this.Index = Index;
+            this.Sol = Sol;
+        }
+
+        void Epoch(Elite e, DistanceProvider CostMatrix, final long SearchStart)
+        {
+            if (RestartFromElite && e != null && e.Island != Index && e.Cost < Sol.BestSolutionCost)
+            {
+                for (int v = 0; v < Sol.Vehicles.length; v++) {
+                    Sol.Vehicles[v].CopyRoute(e.Routes[v]);
+                }
+                Sol.Cost = e.Cost;
+                Sol.JournalLength = -1; //The copy becomes the best of this island
+                Sol.TabuLastImprovement = Sol.TabuIteration;
+                CountRestart();
+            }
+
+            final int EpochEnd = Sol.TabuIteration + ExchangeInterval;
+            Sol.ContinueTabuSearch(Horizon(Index), CostMatrix, new StopCondition() {
+                @Override
+                public boolean Reached(int Iteration, int NoImprovement, long StartNanos)
+                {
+                    return Iteration >= EpochEnd || Stop.Reached(Iteration, NoImprovement, SearchStart);
+                }
+            });
+            Done = Stop.Reached(Sol.TabuIteration, Sol.TabuIteration - Sol.TabuLastImprovement, SearchStart);
+
+            //Back to the best of this island, the Tabu memory stays
+            Sol.RestoreBestSolution();
+            if (Sol.Cost < Offered)
+            {
+                Offered = Sol.Cost;
+                Vehicle[] Routes = new Vehicle[Sol.Vehicles.length];
+                for (int v = 0; v < Routes.length; v++) {
+                    Routes[v] = new Vehicle(Sol.Vehicles[v].VehId, Sol.Vehicles[v].capacity);
+                    Routes[v].CopyRoute(Sol.Vehicles[v]);
+                }
+                Offer(new Elite(Sol.Cost, Index, Routes));
+            }
+        }
+    }
+}
@@ -0,0 +1,597 @@
+package vrp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+class LargeNeighbourhoodSearch
+{
+    //Ruin and recreate for large instances. Every iteration removes a few customers (random, radial or string removal),
+    //inserts them again next to their nearest neighbours (regret or cheapest insertion) and keeps the result by
+    //simulated annealing or record-to-record travel. A rejected iteration only copies back the routes it touched.
+    //With Threads > 1 every thread runs its own chain and after each Batch of iterations all chains continue from
+    //the cheapest one, the run only depends on the Seed and not on the scheduling (unless it is stopped by time).
+
+    public static final int RandomRuin = 1, RadialRuin = 2, StringRuin = 4, AllRuins = 7;
+    public static final int Cheapest = 0, Regret = 1;
+    public static final int Annealing = 0, RecordToRecord = 1;
+
+    public int Ruins = AllRuins;
+    public int Recreate = Regret;
+    public int Acceptance = Annealing;
+    public int MinRemoved = 5;
+    public int MaxRemoved = 30;
+    public int MaxString = 10;             //Longest string of the string removal
+    public int Neighbours = 20;            //Insertion positions per customer when the solution has no candidate lists
+    public double StartTemperature = 0;    //0 = average arc cost of the start solution
+    public double EndTemperature = 0;      //0 = a hundredth of the start temperature
+    public double StartThreshold = 0.02;   //Record-to-record: accepted excess over the best cost, relative
+    public double EndThreshold = 0;
+    public int DefaultHorizon = 100000;    //Iterations of the cooling schedule when Stop has no iteration or time limit
+    public int Threads = 1;
+    public int Batch = 1000;               //Iterations between two synchronisations of the chains
+    public long Seed = 151190;
+    public StopCondition Stop = StopCondition.Iterations(100000);
+
+    public int Iterations;                 //Per chain, of the last Solve
+    public long Accepted, Rejected, Infeasible;
+
+    private DistanceProvider CostMatrix;
+    private int[] Demand;
+    private int[][] Near;
+    private long StartNanos;
+    private double T0, T1;
+
+    public void Solve(Solution Sol, DistanceProvider CostMatrix) throws InterruptedException
+    {
+        //Improves the solution in Sol (built by a construction or another search) in place
+        if (Sol.Demand == null)
+            throw new IllegalStateException("Build a solution before the large neighbourhood search");
+
+        this.CostMatrix = CostMatrix;
+        this.Demand = Sol.Demand;
+        int n = Demand.length;
+        int K = Math.min((Sol.CandidateListSize > 0) ? Sol.CandidateListSize : Neighbours, n - 1);
+        this.Near = (K > 0) ? CostMatrix.NearestNeighbours(K) : new int[n][0];
+
+        Object Phase = Sol.BeginPhase("LNS");
+        long MovesAtStart = Sol.MovesEvaluated;
+        double StartCost = Sol.Cost;
+        StartNanos = System.nanoTime();
+        Accepted = Rejected = Infeasible = 0;
+
+        int Arcs = 0;
+        for (Vehicle v : Sol.Vehicles) {
+            Arcs += Math.max(0, v.RouteLength - 1);
+        }
+        T0 = (StartTemperature > 0) ? StartTemperature : Math.max(1e-9, Sol.Cost / Math.max(1, Arcs));
+        T1 = (EndTemperature > 0) ? EndTemperature : T0 / 100;
+
+        int W = Math.max(1, Threads);
+        Chain[] Chains = new Chain[W];
+        for (int w = 0; w < W; w++) {
+            Chains[w] = new Chain(Sol.Vehicles, Sol.Cost, new Random(Seed + w * 0x9E3779B97F4A7C15L));
+        }
+        Vehicle[] Best = Copy(Sol.Vehicles);
+        double BestCost = Sol.Cost;
+
+        ExecutorService Pool = (W > 1) ? Executors.newFixedThreadPool(W) : null;
+        try {
+            int Iteration = 0, LastImprovement = 0;
+            while (!Stop.Reached(Iteration, Iteration - LastImprovement, StartNanos))
+            {
+                int Steps = Batch;
+                if (Stop.MaxIterations > 0) Steps = Math.min(Steps, Stop.MaxIterations - Iteration);
+                if (Stop.MaxNoImprovement > 0) Steps = Math.min(Steps, Stop.MaxNoImprovement - (Iteration - LastImprovement));
+
+                List<Chain> Round = new ArrayList<>();
+                for (Chain c : Chains) {
+                    c.Start(Iteration, Steps, BestCost);
+                    Round.add(c);
+                }
+                if (Pool == null)
+                {
+                    Chains[0].call();
+                }
+                else
+                {
+                    for (Future<Integer> f : Pool.invokeAll(Round)) {
+                        try {
+                            f.get();
+                        } catch (ExecutionException e) {
+                            throw new IllegalStateException("Large neighbourhood search chain failed", e.getCause());
+                        }
+                    }
+                }
+
+                //The best chain of the round (lowest index on ties) may give a new best solution
+                int Done = 0;
+                Chain Leader = null, Lowest = Chains[0];
+                for (Chain c : Chains) {
+                    Done = Math.max(Done, c.Done);
+                    if (c.BestCost < BestCost - 1e-9 && (Leader == null || c.BestCost < Leader.BestCost)) Leader = c;
+                    if (c.Cost < Lowest.Cost) Lowest = c;
+                    Sol.MovesEvaluated += c.Evaluated;
+                    c.Evaluated = 0;
+                }
+                if (Leader != null)
+                {
+                    for (int v = 0; v < Best.length; v++) {
+                        Best[v].CopyRoute(Leader.BestRoutes[v]);
+                    }
+                    BestCost = Leader.BestCost;
+                    LastImprovement = Leader.BestAt + 1;
+                    Sol.Publish("LNS", LastImprovement, BestCost, Best);
+                }
+                Iteration += Done;
+                if (Done == 0) break;
+
+                if (W > 1)
+                {
+                    for (Chain c : Chains) {
+                        if (c != Lowest) c.CopyFrom(Lowest);
+                    }
+                }
+                Sol.Progress(Iteration);
+            }
+            Iterations = Iteration;
+        } finally {
+            if (Pool != null) Pool.shutdownNow();
+        }
+        for (Chain c : Chains) {
+            Accepted += c.Accepted;
+            Rejected += c.Rejected;
+            Infeasible += c.Infeasible;
+        }
+
+        for (int v = 0; v < Best.length; v++) {
+            Sol.Vehicles[v].CopyRoute(Best[v]);
+            Sol.RouteUpdated(v);
+        }
+        Sol.Cost = BestCost;
+        Sol.EndPhase(Phase, Iterations, MovesAtStart, StartCost);
+    }
+
+    private static Vehicle[] Copy(Vehicle[] Routes)
+    {
+        Vehicle[] c = new Vehicle[Routes.length];
+        for (int v = 0; v < Routes.length; v++) {
+            c[v] = new Vehicle(Routes[v].VehId, Routes[v].capacity);
+            c[v].CopyRoute(Routes[v]);
+        }
+        return c;
+    }
+
+    private double Progress(int Iteration) //Share of the run done, drives the cooling schedule
+    {
+        double p;
+        if (Stop.MaxIterations > 0)
+            p = Iteration / (double) Stop.MaxIterations;
+        else if (Stop.TimeLimitMillis > 0)
+            p = (System.nanoTime() - StartNanos) / (Stop.TimeLimitMillis * 1e6);
+        else if (Stop.DeadlineNanos != 0)
+            p = (System.nanoTime() - StartNanos) / (double) Math.max(1, Stop.DeadlineNanos - StartNanos);
+        else
+            p = Iteration / (double) DefaultHorizon;
+        return Math.min(1, p);
+    }
+
+    private final class Chain implements Callable<Integer>
+    {
+        final Vehicle[] Routes, Saved, BestRoutes;
+        final int[] RouteOf, PositionOf; //RouteOf is -1 while a customer is removed
+        final Random Ran;
+        double Cost, BestCost;
+        int BestAt;
+
+        //Routes copied before their first change in this iteration
+        final boolean[] IsSaved;
+        final int[] SavedList;
+        int SavedCount;
+
+        //Routes changed since the chain's best was copied
+        final boolean[] Dirty;
+        final int[] DirtyList;
+        int DirtyCount;
+
+        //Vehicles without customers, may hold stale entries that are skipped
+        final int[] EmptyStack;
+        final boolean[] InStack;
+        int EmptyCount;
+
+        final int[] Removed;
+        int RemovedCount;
+        final int[] RouteStamp;
+        int Stamp;
+
+        //Best and second best insertion of every removed customer
+        final double[] Best1, Best2;
+        final int[] BestRoute, BestPos;
+
+        int From, Steps, Done;
+        double GlobalBest;
+        long Evaluated, Accepted, Rejected, Infeasible;
+
+        Chain(Vehicle[] Start, double StartCost, Random Ran)
+        {
+            int V = Start.length, n = Demand.length;
+            Routes = Copy(Start);
+            Saved = Copy(Start);
+            BestRoutes = Copy(Start);
+            RouteOf = new int[n];
+            PositionOf = new int[n];
+            this.Ran = Ran;
+            IsSaved = new boolean[V];
+            SavedList = new int[V];
+            Dirty = new boolean[V];
+            DirtyList = new int[V];
+            EmptyStack = new int[V];
+            InStack = new boolean[V];
+            Removed = new int[n];
+            RouteStamp = new int[V];
+            Best1 = new double[n];
+            Best2 = new double[n];
+            BestRoute = new int[n];
+            BestPos = new int[n];
+            Index(StartCost);
+        }
+
+        private void Index(double StartCost)
+        {
+            for (int v = Routes.length - 1; v >= 0; v--) {
+                IndexRoute(v, 0);
+                if (Routes[v].RouteLength <= 2) PushEmpty(v);
+            }
+            Cost = StartCost;
+            BestCost = StartCost;
+            BestAt = -1;
+        }
+
+        void CopyFrom(Chain Other)
+        {
+            for (int v = 0; v < Routes.length; v++) {
+                Routes[v].CopyRoute(Other.Routes[v]);
+                MarkDirty(v);
+            }
+            System.arraycopy(Other.RouteOf, 0, RouteOf, 0, RouteOf.length);
+            System.arraycopy(Other.PositionOf, 0, PositionOf, 0, PositionOf.length);
+            EmptyCount = 0;
+            Arrays.fill(InStack, false);
+            for (int v = Routes.length - 1; v >= 0; v--) {
+                if (Routes[v].RouteLength <= 2) PushEmpty(v);
+            }
+            Cost = Other.Cost;
+        }
+
+        void Start(int From, int Steps, double GlobalBest)
+        {
+            this.From = From;
+            this.Steps = Steps;
+            this.GlobalBest = GlobalBest;
+            BestCost = Cost; //The chain's best of this round
+            BestAt = -1;
+            SaveBest();
+        }
+
+        @Override
+        public Integer call()
+        {
+            Done = 0;
+            for (int s = 0; s < Steps; s++) {
+                if (Stop.Reached(0, 0, StartNanos)) break; //Time and deadline, the iterations are counted by Solve
+                Step(From + s);
+                Done++;
+            }
+            return Done;
+        }
+
+        private void Step(int Iteration)
+        {
+            double Before = Cost;
+            double p = Progress(Iteration);
+            SavedCount = 0;
+            Stamp++;
+
+            int Customers = Demand.length - 1;
+            int q = Math.min(Customers, MinRemoved + Ran.nextInt(Math.max(1, MaxRemoved - MinRemoved + 1)));
+            Ruin(q);
+
+            boolean Feasible = (Recreate == Regret) ? RegretInsertion() : CheapestInsertion();
+            boolean Accept;
+            if (!Feasible)
+            {
+                Infeasible++;
+                Accept = false;
+            }
+            else if (Acceptance == RecordToRecord)
+            {
+                double Threshold = StartThreshold + (EndThreshold - StartThreshold) * p;
+                Accept = Cost <= Math.min(BestCost, GlobalBest) * (1 + Threshold) + 1e-9;
+            }
+            else
+            {
+                double T = T0 * Math.pow(T1 / T0, p);
+                Accept = Cost <= Before + 1e-9 || Ran.nextDouble() < Math.exp((Before - Cost) / T);
+            }
+
+            if (Accept)
+            {
+                Accepted++;
+                for (int k = 0; k < SavedCount; k++) {
+                    IsSaved[SavedList[k]] = false;
+                }
+                if (Cost < BestCost - 1e-9)
+                {
+                    BestCost = Cost;
+                    BestAt = Iteration;
+                    SaveBest();
+                }
+            }
+            else
+            {
+                if (Feasible) Rejected++;
+                for (int k = 0; k < SavedCount; k++) {
+                    int r = SavedList[k];
+                    Routes[r].CopyRoute(Saved[r]);
+                    IsSaved[r] = false;
+                    IndexRoute(r, 0);
+                    if (Routes[r].RouteLength <= 2) PushEmpty(r);
+                }
+                Cost = Before;
+            }
+        }
+
+        void SaveBest()
+        {
+            for (int k = 0; k < DirtyCount; k++) {
+                int r = DirtyList[k];
+                BestRoutes[r].CopyRoute(Routes[r]);
+                Dirty[r] = false;
+            }
+            DirtyCount = 0;
+        }
+
+        private void MarkDirty(int r)
+        {
+            if (!Dirty[r])
+            {
+                Dirty[r] = true;
+                DirtyList[DirtyCount++] = r;
+            }
+        }
+
+        private void Touch(int r) //Keep a copy of the route before its first change in this iteration
+        {
+            if (!IsSaved[r])
+            {
+                Saved[r].CopyRoute(Routes[r]);
+                IsSaved[r] = true;
+                SavedList[SavedCount++] = r;
+                MarkDirty(r);
+            }
+        }
+
+        private void IndexRoute(int r, int FromPosition)
+        {
+            int[] rt = Routes[r].Route;
+            for (int k = FromPosition; k < Routes[r].RouteLength; k++) {
+                if (rt[k] == 0) continue;
+                RouteOf[rt[k]] = r;
+                PositionOf[rt[k]] = k;
+            }
+        }
+
+        private void PushEmpty(int r)
+        {
+            if (!InStack[r])
+            {
+                InStack[r] = true;
+                EmptyStack[EmptyCount++] = r;
+            }
+        }
+
+        private int PeekEmpty() //A vehicle without customers, -1 if all are used
+        {
+            while (EmptyCount > 0 && Routes[EmptyStack[EmptyCount - 1]].RouteLength > 2) {
+                InStack[EmptyStack[--EmptyCount]] = false;
+            }
+            return (EmptyCount > 0) ? EmptyStack[EmptyCount - 1] : -1;
+        }
+
+        private double d(int i, int j)
+        {
+            return CostMatrix.Distance(i, j);
+        }
+
+        //Ruin
+
+        private void Ruin(int q)
+        {
+            RemovedCount = 0;
+            int Kinds = Integer.bitCount(Ruins & AllRuins);
+            int Kind = RandomRuin;
+            if (Kinds > 0)
+            {
+                int Pick = Ran.nextInt(Kinds);
+                for (int k = RandomRuin; k <= StringRuin; k <<= 1) {
+                    if ((Ruins & k) != 0 && Pick-- == 0) { Kind = k; break; }
+                }
+            }
+
+            int First = RandomCustomer();
+            if (Kind == RadialRuin)
+            {
+                Remove(First);
+                for (int w : Near[First]) {
+                    if (RemovedCount >= q) break;
+                    if (w != 0 && RouteOf[w] >= 0) Remove(w);
+                }
+            }
+            else if (Kind == StringRuin)
+            {
+                StringRemoval(First, q);
+                for (int k = 0; k < Near[First].length && RemovedCount < q; k++) {
+                    StringRemoval(Near[First][k], q);
+                }
+            }
+            while (RemovedCount < q) {
+                Remove(RandomCustomer());
+            }
+        }
+
+        private int RandomCustomer() //A customer still in a route
+        {
+            int c;
+            do {
+                c = 1 + Ran.nextInt(Demand.length - 1);
+            } while (RouteOf[c] < 0);
+            return c;
+        }
+
+        private void StringRemoval(int w, int q)
+        {
+            //Remove consecutive customers around w, at most one string per route
+            if (w == 0 || RouteOf[w] < 0) return;
+            int r = RouteOf[w];
+            if (RouteStamp[r] == Stamp) return;
+            RouteStamp[r] = Stamp;
+
+            Vehicle v = Routes[r];
+            int Inner = v.RouteLength - 2;
+            int Length = 1 + Ran.nextInt(Math.max(1, Math.min(Math.min(MaxString, Inner), q - RemovedCount)));
+            int p = PositionOf[w];
+            int Lowest = Math.max(1, p - Length + 1), Highest = Math.min(p, v.RouteLength - 1 - Length);
+            int Start = Lowest + Ran.nextInt(Highest - Lowest + 1); //The string holds w
+
+            for (int k = 0; k < Length && Start < v.RouteLength - 1; k++) {
+                int c = v.Route[Start];
+                if (c == 0) { Start++; continue; } //Depot visit inside the route stays
+                Remove(c);
+            }
+        }
+
+        private void Remove(int c)
+        {
+            int r = RouteOf[c], p = PositionOf[c];
+            Touch(r);
+            Vehicle v = Routes[r];
+            int Prev = v.Route[p - 1], Next = v.Route[p + 1];
+            Cost += d(Prev, Next) - d(Prev, c) - d(c, Next);
+            v.RemoveNode(p);
+            v.load -= Demand[c];
+            RouteOf[c] = -1;
+            Removed[RemovedCount++] = c;
+            IndexRoute(r, p);
+            if (v.RouteLength <= 2) PushEmpty(r);
+        }
+
+        //Recreate
+
+        private boolean CheapestInsertion()
+        {
+            for (int k = RemovedCount - 1; k > 0; k--) { //Random order
+                int j = Ran.nextInt(k + 1);
+                int t = Removed[k]; Removed[k] = Removed[j]; Removed[j] = t;
+            }
+            for (int k = 0; k < RemovedCount; k++) {
+                int c = Removed[k];
+                if (!Evaluate(c)) return false;
+                Insert(c, BestRoute[c], BestPos[c], Best1[c]);
+            }
+            return true;
+        }
+
+        private boolean RegretInsertion()
+        {
+            //Insert the customer that loses most by not getting its best route first
+            int Left = RemovedCount;
+            while (Left > 0) {
+                int Pick = -1;
+                double PickRegret = -1, PickCost = 0;
+                for (int k = 0; k < Left; k++) {
+                    int c = Removed[k];
+                    if (!Evaluate(c)) return false;
+                    double Regret = (Best2[c] == Double.MAX_VALUE) ? Double.MAX_VALUE : Best2[c] - Best1[c];
+                    if (Regret > PickRegret || (Regret == PickRegret && Best1[c] < PickCost)) {
+                        Pick = k;
+                        PickRegret = Regret;
+                        PickCost = Best1[c];
+                    }
+                }
+                int c = Removed[Pick];
+                Insert(c, BestRoute[c], BestPos[c], Best1[c]);
+                Removed[Pick] = Removed[--Left];
+                Removed[Left] = c;
+            }
+            return true;
+        }
+
+        private boolean Evaluate(int c)
+        {
+            //Cheapest insertion next to a near customer or into an empty vehicle, second best in another route
+            Best1[c] = Double.MAX_VALUE;
+            Best2[c] = Double.MAX_VALUE;
+            BestRoute[c] = -1;
+            for (int w : Near[c]) {
+                if (w == 0 || RouteOf[w] < 0) continue;
+                int r = RouteOf[w], p = PositionOf[w];
+                Position(c, r, p - 1);
+                Position(c, r, p);
+            }
+            int Empty = PeekEmpty();
+            if (Empty >= 0)
+                Candidate(c, Empty, 0, 2 * d(0, c));
+
+            if (BestRoute[c] < 0) //Nothing near fits, try every route
+            {
+                for (int r = 0; r < Routes.length; r++) {
+                    for (int j = 0; j < Routes[r].RouteLength - 1; j++) {
+                        Position(c, r, j);
+                    }
+                }
+            }
+            return BestRoute[c] >= 0;
+        }
+
+        private void Position(int c, int r, int j) //Between Route[j] and Route[j+1]
+        {
+            Vehicle v = Routes[r];
+            if (j < 0 || j >= v.RouteLength - 1 || v.load + Demand[c] > v.capacity) return;
+            int a = v.Route[j], b = v.Route[j + 1];
+            Candidate(c, r, j, d(a, c) + d(c, b) - d(a, b));
+        }
+
+        private void Candidate(int c, int r, int j, double Delta)
+        {
+            Evaluated++;
+            if (Delta < Best1[c])
+            {
+                if (r != BestRoute[c]) Best2[c] = Best1[c];
+                Best1[c] = Delta;
+                BestRoute[c] = r;
+                BestPos[c] = j;
+            }
+            else if (r != BestRoute[c] && Delta < Best2[c])
+            {
+                Best2[c] = Delta;
+            }
+        }
+
+        private void Insert(int c, int r, int j, double Delta)
+        {
+            Touch(r);
+            Vehicle v = Routes[r];
+            if (v.RouteLength == 0)
+            {
+                v.AddNode(0, 0);
+                v.AddNode(0, 0);
+            }
+            v.InsertNode(j + 1, c);
+            v.load += Demand[c];
+            Cost += Delta;
+            IndexRoute(r, j + 1);
+        }
+    }
+}
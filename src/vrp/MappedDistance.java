@@ -0,0 +1,290 @@
+package vrp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+
+class MappedDistance extends DistanceProvider
+{
+    //Costs read straight from a memory-mapped file, outside the Java heap. Solver processes mapping the same file
+    //share one copy in the page cache, and the matrix adds nothing to their heap or to the GC work.
+    //The file is built once by the preprocessing command:
+    //java -cp solver/target/classes vrp.MappedDistance <instance.vrp | matrix.txt> <target.dist> [-int]
+    //A .vrp instance gives its rounded EUC_2D distances as a lower triangle, a text matrix (the dimension, then the
+    //rows) is stored in full. -int stores rounded integers instead of floats. Costs must be symmetric: 2-opt, reversed
+    //Or-opt, the savings and CachedRowDistance all read (i, j) as (j, i), so a matrix that differs by direction is refused.
+    //
+    //Layout (little endian): a 64 byte header of magic, version, dimension, value type (0 float, 1 int),
+    //layout (0 full rows, 1 lower triangle), entries (long), CRC32 of the data, CRC32 of the header before it;
+    //then the entries, 4 bytes each. A triangle holds (i, j), j < i, at i (i - 1) / 2 + j.
+
+    public static final int Magic = 0x56525044; //"VRPD"
+    public static final int Version = 1;
+    public static final int HeaderBytes = 64;
+    public static final int FloatValues = 0, IntValues = 1;
+    public static final int Full = 0, Triangle = 1;
+
+    private static final int ChunkShift = 28; //Entries per mapping, 1 GiB, a single buffer cannot pass 2 GiB
+    private static final int ChunkMask = (1 << ChunkShift) - 1;
+
+    private final int Dimension;
+    private final boolean Ints, Lower;
+    private final FloatBuffer[] FloatChunks;
+    private final IntBuffer[] IntChunks;
+
+    private MappedDistance(int Dimension, boolean Ints, boolean Lower, FloatBuffer[] FloatChunks, IntBuffer[] IntChunks)
+    {
+        this.Dimension = Dimension;
+        this.Ints = Ints;
+        this.Lower = Lower;
+        this.FloatChunks = FloatChunks;
+        this.IntChunks = IntChunks;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2)
+        {
+            System.out.println("Usage: MappedDistance <instance.vrp | matrix.txt> <target.dist> [-int]");
+            return;
+        }
+        Path Source = Paths.get(args[0]), Target = Paths.get(args[1]);
+        boolean Ints = args.length > 2 && args[2].equals("-int");
+
+        long Start = System.nanoTime();
+        int Dimension;
+        if (Source.getFileName().toString().endsWith(".vrp"))
+        {
+            CvrpInstance Inst = CvrpLib.Load(Source);
+            Dimension = Inst.Dimension;
+            Write(new EuclideanDistance(Inst.NodeX, Inst.NodeY, true), Target, Ints, true);
+        }
+        else
+        {
+            Dimension = WriteText(Source, Target, Ints);
+        }
+        System.out.printf("Wrote %d x %d distances to %s (%d bytes) in %.1f s%n", Dimension, Dimension, Target,
+                Files.size(Target), (System.nanoTime() - Start) / 1e9);
+    }
+
+    public static MappedDistance Open(Path File) throws IOException
+    {
+        return Open(File, true);
+    }
+
+    public static MappedDistance Open(Path File, boolean Verify) throws IOException
+    {
+        //Verify reads the whole file once to check the data checksum, the mapping itself copies nothing
+        try (FileChannel Channel = FileChannel.open(File, StandardOpenOption.READ)) {
+            if (Channel.size() < HeaderBytes)
+                throw new IOException(File + " is not a distance file");
+            ByteBuffer Header = Channel.map(FileChannel.MapMode.READ_ONLY, 0, HeaderBytes).order(ByteOrder.LITTLE_ENDIAN);
+            if (Header.getInt(0) != Magic)
+                throw new IOException(File + " is not a distance file");
+            CRC32 HeaderCrc = new CRC32();
+            for (int b = 0; b < HeaderBytes - 4; b++) HeaderCrc.update(Header.get(b));
+            if ((int) HeaderCrc.getValue() != Header.getInt(HeaderBytes - 4))
+                throw new IOException(File + ": damaged header (checksum mismatch)");
+            int FileVersion = Header.getInt(4);
+            if (FileVersion != Version)
+                throw new IOException(File + ": unsupported distance file version " + FileVersion);
+            int Dimension = Header.getInt(8);
+            int Type = Header.getInt(12);
+            int Layout = Header.getInt(16);
+            long Entries = Header.getLong(24);
+            int DataCrc = Header.getInt(32);
+            if (Dimension < 1 || (Type != FloatValues && Type != IntValues) || (Layout != Full && Layout != Triangle)
+                    || Entries != Entries(Dimension, Layout == Triangle))
+                throw new IOException(File + ": inconsistent header");
+            if (Channel.size() != HeaderBytes + 4 * Entries)
+                throw new IOException(File + ": " + Channel.size() + " bytes, the header describes " + (HeaderBytes + 4 * Entries));
+
+            int Chunks = (int) ((Entries + ChunkMask) >>> ChunkShift);
+            FloatBuffer[] FloatChunks = (Type == FloatValues) ? new FloatBuffer[Chunks] : null;
+            IntBuffer[] IntChunks = (Type == IntValues) ? new IntBuffer[Chunks] : null;
+            CRC32 Crc = new CRC32();
+            for (int c = 0; c < Chunks; c++) {
+                long First = (long) c << ChunkShift;
+                long Count = Math.min(Entries - First, 1L << ChunkShift);
+                ByteBuffer Chunk = Channel.map(FileChannel.MapMode.READ_ONLY, HeaderBytes + 4 * First, 4 * Count)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                if (Verify) Crc.update(Chunk.duplicate());
+                if (FloatChunks != null) FloatChunks[c] = Chunk.asFloatBuffer();
+                else IntChunks[c] = Chunk.asIntBuffer();
+            }
+            if (Verify && (int) Crc.getValue() != DataCrc)
+                throw new IOException(File + ": damaged distances (checksum mismatch)");
+
+            return new MappedDistance(Dimension, Type == IntValues, Layout == Triangle, FloatChunks, IntChunks);
+        }
+    }
+
+    @Override
+    public double Distance(int from, int to)
+    {
+        long Index;
+        if (Lower)
+        {
+            if (from == to) return 0;
+            if (from < to) { int t = from; from = to; to = t; }
+            Index = ((long) from * (from - 1) >>> 1) + to;
+        }
+        else
+        {
+            Index = (long) from * Dimension + to;
+        }
+        int c = (int) (Index >>> ChunkShift), p = (int) Index & ChunkMask;
+        return Ints ? IntChunks[c].get(p) : FloatChunks[c].get(p);
+    }
+
+    @Override
+    public int Dimension()
+    {
+        return Dimension;
+    }
+
+    private static long Entries(int Dimension, boolean Lower)
+    {
+        return Lower ? (long) Dimension * (Dimension - 1) / 2 : (long) Dimension * Dimension;
+    }
+
+    public static void Write(DistanceProvider Source, Path Target, boolean Ints, boolean Lower) throws IOException
+    {
+        //Lower stores only (i, j), j < i, full rows are checked for symmetry before the file is moved in place
+        int n = Source.Dimension();
+        try (Writer Out = new Writer(Target, n, Ints, Lower)) {
+            for (int i = 0; i < n; i++) {
+                int End = Lower ? i : n;
+                for (int j = 0; j < End; j++) {
+                    Out.Put(Source.Distance(i, j));
+                }
+            }
+            Out.CheckSymmetric(Target.toString());
+            Out.Finish();
+        }
+    }
+
+    private static int WriteText(Path Source, Path Target, boolean Ints) throws IOException
+    {
+        //Streamed from the mapped text, the matrix is never held in memory
+        ByteScanner In = new ByteScanner(CvrpLib.Map(Source));
+        int n = In.Int();
+        if (n < 1)
+            throw new IOException(Source + ": the dimension must come first");
+        try (Writer Out = new Writer(Target, n, Ints, false)) {
+            for (long e = 0; e < (long) n * n; e++) {
+                Out.Put(In.Number());
+            }
+            Out.CheckSymmetric(Source.toString());
+            Out.Finish();
+        }
+        return n;
+    }
+
+    private static class Writer implements AutoCloseable
+    {
+        //Entries are written behind the header through a direct buffer, the header goes in last with the checksum,
+        //and the complete file is moved over Target like the Tabu checkpoints
+        private final Path Target, Temp;
+        private final FileChannel Channel;
+        private final ByteBuffer Buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 Crc = new CRC32();
+        private final int Dimension;
+        private final boolean Ints, Lower;
+        private long Written;
+        private boolean Finished;
+
+        Writer(Path Target, int Dimension, boolean Ints, boolean Lower) throws IOException
+        {
+            this.Target = Target.toAbsolutePath();
+            this.Temp = this.Target.resolveSibling(this.Target.getFileName() + ".tmp");
+            this.Dimension = Dimension;
+            this.Ints = Ints;
+            this.Lower = Lower;
+            Channel = FileChannel.open(Temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Channel.position(HeaderBytes);
+        }
+
+        void Put(double d) throws IOException
+        {
+            if (Ints) Buffer.putInt((int) Math.round(d));
+            else Buffer.putFloat((float) d);
+            Written++;
+            if (!Buffer.hasRemaining()) Flush();
+        }
+
+        private void Flush() throws IOException
+        {
+            Buffer.flip();
+            Crc.update(Buffer.duplicate());
+            while (Buffer.hasRemaining()) Channel.write(Buffer);
+            Buffer.clear();
+        }
+
+        void CheckSymmetric(String Source) throws IOException
+        {
+            //Full rows only, the entries are compared as stored through a mapping of the file written so far
+            Flush();
+            if (Lower || Written != Entries(Dimension, false))
+                return;
+            int Chunks = (int) ((Written + ChunkMask) >>> ChunkShift);
+            IntBuffer[] Data = new IntBuffer[Chunks];
+            for (int c = 0; c < Chunks; c++) {
+                long First = (long) c << ChunkShift;
+                long Count = Math.min(Written - First, 1L << ChunkShift);
+                Data[c] = Channel.map(FileChannel.MapMode.READ_ONLY, HeaderBytes + 4 * First, 4 * Count)
+                        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            }
+            for (int i = 1; i < Dimension; i++) {
+                for (int j = 0; j < i; j++) {
+                    long a = (long) i * Dimension + j, b = (long) j * Dimension + i;
+                    if (Data[(int) (a >>> ChunkShift)].get((int) a & ChunkMask) != Data[(int) (b >>> ChunkShift)].get((int) b & ChunkMask))
+                        throw new IOException(Source + ": the cost from " + j + " to " + i + " differs from the way back,"
+                                + " the solver needs symmetric costs");
+                }
+            }
+        }
+
+        void Finish() throws IOException
+        {
+            Flush();
+            if (Written != Entries(Dimension, Lower))
+                throw new IOException("Expected " + Entries(Dimension, Lower) + " distances, got " + Written);
+
+            ByteBuffer Header = ByteBuffer.allocate(HeaderBytes).order(ByteOrder.LITTLE_ENDIAN);
+            Header.putInt(0, Magic);
+            Header.putInt(4, Version);
+            Header.putInt(8, Dimension);
+            Header.putInt(12, Ints ? IntValues : FloatValues);
+            Header.putInt(16, Lower ? Triangle : Full);
+            Header.putLong(24, Written);
+            Header.putInt(32, (int) Crc.getValue());
+            CRC32 HeaderCrc = new CRC32();
+            HeaderCrc.update(Header.array(), 0, HeaderBytes - 4);
+            Header.putInt(HeaderBytes - 4, (int) HeaderCrc.getValue());
+            Channel.write(Header, 0);
+            Channel.force(true);
+            Channel.close();
+            try {
+                Files.move(Temp, Target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(Temp, Target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Finished = true;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (Finished) return;
+            Channel.close();
+            Files.deleteIfExists(Temp);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package vrp;
+
+class MatrixDistance extends DistanceProvider
+{
+    //Full n x n matrix, the fastest lookup and the small instance default (8 n^2 bytes)
+    private final double[][] Matrix;
+
+    MatrixDistance(double[][] Matrix)
+    {
+        this.Matrix = Matrix;
+    }
+
+    MatrixDistance(DistanceProvider Source)
+    {
+        Origin = Source;
+        int n = Source.Dimension();
+        Matrix = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double d = Source.Distance(i, j);
+                Matrix[i][j] = d;
+                Matrix[j][i] = d;
+            }
+        }
+    }
+
+    public double[][] Matrix()
+    {
+        return Matrix;
+    }
+
+    @Override
+    public double Distance(int from, int to)
+    {
+        return Matrix[from][to];
+    }
+
+    @Override
+    public int Dimension()
+    {
+        return Matrix.length;
+    }
+}
@@ -0,0 +1,307 @@
+package vrp;
+
+import java.util.Arrays;
+
+class MoveOperators
+{
+    //Moves beside the 1-0 relocate, picked with Solution.Operators. The cost of a move is the O(1) difference of the
+    //arcs it removes and adds and the capacity check is O(1) from the prefix loads of the routes (Vehicle.PrefixLoad).
+    //With candidate lists only moves creating an arc to a near node are tried, otherwise every position is.
+
+    public static final int Relocate = 1;    //Move one customer (the move of the searches)
+    public static final int TwoOpt = 2;      //Reverse a part of a route
+    public static final int TwoOptStar = 4;  //Exchange the tails of two routes
+    public static final int Swap = 8;        //Exchange two customers of different routes
+    public static final int OrOpt = 16;      //Move 2 or 3 consecutive customers, in either direction
+    public static final int All = Relocate | TwoOpt | TwoOptStar | Swap | OrOpt;
+    public static final int IntraRoute = TwoOpt | OrOpt; //The ones that also work inside a single route
+
+    public static int MaxSegment = 3; //Longest Or-opt segment
+
+    private final Solution Sol;
+    private final DistanceProvider CostMatrix;
+    private final int Ops;
+    private final boolean SameRoute; //Only moves inside one route
+    private final int[] Buffer;
+    private long Evaluated;
+
+    //Best improving move found by the last Improve
+    private int Type;
+    private double Cost;
+    private int A, I, B, J, Length;
+    private boolean Reversed;
+
+    MoveOperators(Solution Sol, DistanceProvider CostMatrix, int Ops, boolean SameRoute)
+    {
+        this.Sol = Sol;
+        this.CostMatrix = CostMatrix;
+        this.Ops = SameRoute ? (Ops & IntraRoute) : Ops;
+        this.SameRoute = SameRoute;
+        this.Buffer = new int[Math.max(1, MaxSegment)];
+    }
+
+    public static boolean Any(int Ops, boolean SameRoute) //Something beside Relocate is selected
+    {
+        return ((SameRoute ? (Ops & IntraRoute) : Ops) & ~Relocate) != 0;
+    }
+
+    public double Improve() //Applies the best improving move and returns its cost difference, 0 if there is none
+    {
+        Type = 0;
+        Cost = 0;
+        boolean Granular = Sol.CandidateLists != null && !SameRoute;
+        Vehicle[] V = Sol.Vehicles;
+
+        for (int a = 0; a < V.length; a++) {
+            if (V[a].RouteLength < 2) continue; //Unused vehicle, an empty route 0-0 can still take a tail
+            if ((Ops & TwoOpt) != 0) TwoOpt(a, Granular);
+            if ((Ops & OrOpt) != 0) OrOpt(a, Granular);
+            if ((Ops & TwoOptStar) != 0) TwoOptStar(a, Granular);
+            if ((Ops & Swap) != 0) Swap(a, Granular);
+        }
+        Sol.MovesEvaluated += Evaluated;
+        Evaluated = 0;
+        if (Type == 0)
+            return 0;
+        Apply();
+        return Cost;
+    }
+
+    private double d(int i, int j)
+    {
+        return CostMatrix.Distance(i, j);
+    }
+
+    private void Keep(int Type, double Delta, int A, int I, int B, int J, int Length, boolean Reversed)
+    {
+        Evaluated++;
+        if (Delta < Cost - 1e-9)
+        {
+            this.Type = Type;
+            this.Cost = Delta;
+            this.A = A; this.I = I; this.B = B; this.J = J;
+            this.Length = Length;
+            this.Reversed = Reversed;
+        }
+    }
+
+    private void TwoOpt(int a, boolean Granular)
+    {
+        //Reverse R[i..j]: arcs (R[i-1],R[i]) and (R[j],R[j+1]) become (R[i-1],R[j]) and (R[i],R[j+1])
+        int[] R = Sol.Vehicles[a].Route;
+        int L = Sol.Vehicles[a].RouteLength;
+        for (int i = 1; i < L - 2; i++) {
+            if (Granular)
+            {
+                for (int w : Sol.CandidateLists[R[i - 1]]) {
+                    if (w == 0 || Sol.RouteOf[w] != a) continue;
+                    int j = Sol.PositionOf[w];
+                    if (j > i && j < L - 1) TwoOptAt(a, R, i, j);
+                }
+            }
+            else
+            {
+                for (int j = i + 1; j < L - 1; j++) {
+                    TwoOptAt(a, R, i, j);
+                }
+            }
+        }
+    }
+
+    private void TwoOptAt(int a, int[] R, int i, int j)
+    {
+        double Delta = d(R[i - 1], R[j]) + d(R[i], R[j + 1]) - d(R[i - 1], R[i]) - d(R[j], R[j + 1]);
+        Keep(TwoOpt, Delta, a, i, a, j, 0, false);
+    }
+
+    private void TwoOptStar(int a, boolean Granular)
+    {
+        //Route a keeps R[0..i] and gets b[j+1..], route b keeps b[0..j] and gets R[i+1..]
+        Vehicle Va = Sol.Vehicles[a];
+        int[] R = Va.Route;
+        int L = Va.RouteLength;
+        for (int i = 0; i < L - 1; i++) {
+            if (Granular)
+            {
+                for (int w : Sol.CandidateLists[R[i]]) {
+                    if (w == 0 || Sol.RouteOf[w] == a) continue;
+                    TwoOptStarAt(a, i, Sol.RouteOf[w], Sol.PositionOf[w] - 1);
+                }
+            }
+            else
+            {
+                for (int b = a + 1; b < Sol.Vehicles.length; b++) {
+                    for (int j = 0; j < Sol.Vehicles[b].RouteLength - 1; j++) {
+                        TwoOptStarAt(a, i, b, j);
+                    }
+                }
+            }
+        }
+    }
+
+    private void TwoOptStarAt(int a, int i, int b, int j)
+    {
+        Vehicle Va = Sol.Vehicles[a], Vb = Sol.Vehicles[b];
+        int La = Va.RouteLength, Lb = Vb.RouteLength;
+        if (Lb < 2 || j < 0 || j > Lb - 2) return;
+        if ((i == 0 && j == 0) || (i == La - 2 && j == Lb - 2)) return; //The routes only trade places
+
+        int[] Pa = Va.PrefixLoad(Sol.Demand), Pb = Vb.PrefixLoad(Sol.Demand);
+        if (Pa[i + 1] + Pb[Lb] - Pb[j + 1] > Va.capacity || Pb[j + 1] + Pa[La] - Pa[i + 1] > Vb.capacity)
+            return;
+
+        int[] R = Va.Route, S = Vb.Route;
+        double Delta = d(R[i], S[j + 1]) + d(S[j], R[i + 1]) - d(R[i], R[i + 1]) - d(S[j], S[j + 1]);
+        Keep(TwoOptStar, Delta, a, i, b, j, 0, false);
+    }
+
+    private void Swap(int a, boolean Granular)
+    {
+        Vehicle Va = Sol.Vehicles[a];
+        int[] R = Va.Route;
+        for (int i = 1; i < Va.RouteLength - 1; i++) {
+            if (R[i] == 0) continue;
+            if (Granular)
+            {
+                //u takes the place of a neighbour of w, so the swap creates the arc between u and w
+                for (int w : Sol.CandidateLists[R[i]]) {
+                    if (w == 0 || Sol.RouteOf[w] == a) continue;
+                    int b = Sol.RouteOf[w], p = Sol.PositionOf[w];
+                    if (p > 1) SwapAt(a, i, b, p - 1);
+                    if (p < Sol.Vehicles[b].RouteLength - 2) SwapAt(a, i, b, p + 1);
+                }
+            }
+            else
+            {
+                for (int b = a + 1; b < Sol.Vehicles.length; b++) {
+                    for (int j = 1; j < Sol.Vehicles[b].RouteLength - 1; j++) {
+                        SwapAt(a, i, b, j);
+                    }
+                }
+            }
+        }
+    }
+
+    private void SwapAt(int a, int i, int b, int j)
+    {
+        Vehicle Va = Sol.Vehicles[a], Vb = Sol.Vehicles[b];
+        int[] R = Va.Route, S = Vb.Route;
+        int u = R[i], w = S[j];
+        if (w == 0) return;
+        int Change = Sol.Demand[w] - Sol.Demand[u];
+        if (Va.load + Change > Va.capacity || Vb.load - Change > Vb.capacity)
+            return;
+
+        double Delta = d(R[i - 1], w) + d(w, R[i + 1]) - d(R[i - 1], u) - d(u, R[i + 1])
+                + d(S[j - 1], u) + d(u, S[j + 1]) - d(S[j - 1], w) - d(w, S[j + 1]);
+        Keep(Swap, Delta, a, i, b, j, 0, false);
+    }
+
+    private void OrOpt(int a, boolean Granular)
+    {
+        //Segment R[i..i+s-1] goes between positions j and j+1 of route b
+        Vehicle Va = Sol.Vehicles[a];
+        int[] R = Va.Route;
+        int L = Va.RouteLength;
+        for (int s = 2; s <= MaxSegment; s++) {
+            for (int i = 1; i + s - 1 < L - 1; i++) {
+                if (Granular)
+                {
+                    for (int End = 0; End < 2; End++) {
+                        for (int w : Sol.CandidateLists[R[End == 0 ? i : i + s - 1]]) {
+                            if (w == 0) continue;
+                            int b = Sol.RouteOf[w], p = Sol.PositionOf[w];
+                            OrOptAt(a, i, s, b, p - 1);
+                            OrOptAt(a, i, s, b, p);
+                        }
+                    }
+                }
+                else
+                {
+                    for (int b = SameRoute ? a : 0; b < (SameRoute ? a + 1 : Sol.Vehicles.length); b++) {
+                        for (int j = 0; j < Sol.Vehicles[b].RouteLength - 1; j++) {
+                            OrOptAt(a, i, s, b, j);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void OrOptAt(int a, int i, int s, int b, int j)
+    {
+        Vehicle Va = Sol.Vehicles[a], Vb = Sol.Vehicles[b];
+        if (j < 0 || j > Vb.RouteLength - 2) return;
+        if (a == b && j >= i - 1 && j <= i + s - 1) return; //An arc of the segment or next to it
+        int[] R = Va.Route, S = Vb.Route;
+        if (a != b)
+        {
+            int[] P = Va.PrefixLoad(Sol.Demand);
+            if (Vb.load + P[i + s] - P[i] > Vb.capacity) return;
+        }
+
+        int First = R[i], Last = R[i + s - 1];
+        double Removal = d(R[i - 1], R[i + s]) - d(R[i - 1], First) - d(Last, R[i + s]);
+        double Arc = d(S[j], S[j + 1]);
+        Keep(OrOpt, Removal + d(S[j], First) + d(Last, S[j + 1]) - Arc, a, i, b, j, s, false);
+        Keep(OrOpt, Removal + d(S[j], Last) + d(First, S[j + 1]) - Arc, a, i, b, j, s, true);
+    }
+
+    private void Apply()
+    {
+        Vehicle Va = Sol.Vehicles[A], Vb = Sol.Vehicles[B];
+        switch (Type)
+        {
+            case TwoOpt:
+                for (int l = I, r = J; l < r; l++, r--) {
+                    int t = Va.Route[l]; Va.Route[l] = Va.Route[r]; Va.Route[r] = t;
+                }
+                Va.RouteEdited();
+                break;
+            case TwoOptStar:
+            {
+                int[] Pa = Va.PrefixLoad(Sol.Demand), Pb = Vb.PrefixLoad(Sol.Demand);
+                int LoadA = Pa[I + 1] + Pb[Vb.RouteLength] - Pb[J + 1];
+                int LoadB = Pb[J + 1] + Pa[Va.RouteLength] - Pa[I + 1];
+                int[] TailA = Arrays.copyOfRange(Va.Route, I + 1, Va.RouteLength);
+                int[] TailB = Arrays.copyOfRange(Vb.Route, J + 1, Vb.RouteLength);
+                Va.ReplaceTail(I + 1, TailB, TailB.length);
+                Vb.ReplaceTail(J + 1, TailA, TailA.length);
+                Va.load = LoadA;
+                Vb.load = LoadB;
+                break;
+            }
+            case Swap:
+            {
+                int u = Va.Route[I], w = Vb.Route[J];
+                Va.Route[I] = w;
+                Vb.Route[J] = u;
+                Va.load += Sol.Demand[w] - Sol.Demand[u];
+                Vb.load += Sol.Demand[u] - Sol.Demand[w];
+                Va.RouteEdited();
+                Vb.RouteEdited();
+                break;
+            }
+            case OrOpt:
+            {
+                int Load = 0;
+                for (int k = 0; k < Length; k++) {
+                    Buffer[Reversed ? Length - 1 - k : k] = Va.Route[I + k];
+                    Load += Sol.Demand[Va.Route[I + k]];
+                }
+                for (int k = 0; k < Length; k++) {
+                    Va.RemoveNode(I);
+                }
+                int At = (A == B && J >= I + Length) ? J + 1 - Length : J + 1;
+                for (int k = Length - 1; k >= 0; k--) {
+                    Vb.InsertNode(At, Buffer[k]);
+                }
+                Va.load -= Load;
+                Vb.load += Load;
+                break;
+            }
+        }
+        Sol.RouteUpdated(A);
+        if (B != A) Sol.RouteUpdated(B);
+    }
+}
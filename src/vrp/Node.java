@@ -0,0 +1,30 @@
+/*
+ * Created by Nikolaos Michail
+ */
+
+package vrp;
+
+class Node
+{
+    public int NodeId;
+    public int Node_X ,Node_Y; //Node Coordinates
+    public int demand; //Node Demand if Customer
+    private boolean IsDepot; //True if it Depot Node
+
+    public Node(int depot_x,int depot_y) //Cunstructor for depot
+    {
+        this.NodeId = 0;
+        this.Node_X = depot_x;
+        this.Node_Y = depot_y;
+        this.IsDepot = true;
+    }
+
+    public Node(int id ,int x, int y, int demand) //Cunstructor for Customers
+    {
+        this.NodeId = id;
+        this.Node_X = x;
+        this.Node_Y = y;
+        this.demand = demand;
+        this.IsDepot = false;
+    }
+}
@@ -0,0 +1,84 @@
+package vrp;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.*;
+
+class Portfolio
+{
+    //Independent greedy + Tabu solves of one instance run side by side, each with its own seed and Tabu horizon.
+    //Start 0 is the plain greedy construction, the others open their routes at random customers.
+    //The instance (Nodes, distances) is only read, every start works on its own Solution.
+
+    public int Starts = Runtime.getRuntime().availableProcessors();
+    public int Threads = Runtime.getRuntime().availableProcessors(); //Solves running at the same time
+    public long Seed = 151190;
+    public int TabuHorizon = 10; //Start 0 uses it, the others spread around it
+    public int CandidateListSize = 0;
+    public boolean SpatialGreedy = false;
+    public StopCondition TabuStop = StopCondition.Iterations(200); //Applied to every start, a time limit counts from Solve
+
+    public double[] Costs; //Final cost of every start of the last Solve
+    public int BestStart;
+
+    public int Horizon(int Start) //TabuHorizon, -1, +1, -2, +2, ...
+    {
+        int Offset = (Start + 1) / 2;
+        int H = (Start % 2 == 1) ? TabuHorizon - Offset : TabuHorizon + Offset;
+        return Math.max(1, H);
+    }
+
+    public long Seed(int Start)
+    {
+        return Seed + Start * 0x9E3779B97F4A7C15L;
+    }
+
+    public Solution Solve(final Node[] Nodes, final DistanceProvider CostMatrix,
+                          final int NoOfCustomers, final int NoOfVehicles, final int VehicleCap) throws InterruptedException
+    {
+        //With more starts than threads some starts wait in the pool, they get what is left of the time limit
+        final StopCondition Stop = TabuStop.StartingAt(System.nanoTime());
+        ExecutorService Pool = Executors.newFixedThreadPool(Math.max(1, Math.min(Threads, Starts)));
+        ArrayList<Future<Solution>> Runs = new ArrayList<>();
+        try {
+            for (int i = 0; i < Starts; i++) {
+                final int Start = i;
+                Runs.add(Pool.submit(new Callable<Solution>() {
+                    @Override
+                    public Solution call()
+                    {
+                        Solution s = new Solution(NoOfCustomers, NoOfVehicles, VehicleCap);
+                        s.CandidateListSize = CandidateListSize;
+                        s.SpatialGreedy = SpatialGreedy;
+                        s.WriteTraces = false;
+                        s.TabuRan = new Random(Seed(Start));
+                        if (Start > 0) s.GreedyRan = new Random(~Seed(Start));
+                        s.GreedySolution(Nodes, CostMatrix);
+                        s.TabuSearch(Horizon(Start), CostMatrix, Stop);
+                        return s;
+                    }
+                }));
+            }
+
+            //Lowest cost wins, ties keep the lower start so the result does not depend on scheduling
+            Solution Best = null;
+            Costs = new double[Starts];
+            for (int i = 0; i < Starts; i++) {
+                Solution s;
+                try {
+                    s = Runs.get(i).get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Portfolio start " + i + " failed", e.getCause());
+                }
+                Costs[i] = s.Cost;
+                if (Best == null || s.Cost < Best.Cost) {
+                    Best = s;
+                    BestStart = i;
+                }
+            }
+            return Best;
+        } finally {
+            Pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package vrp;
+
+import java.util.Arrays;
+
+class SavingsConstruction
+{
+    //Parallel Clarke-Wright savings. Every customer starts on its own route 0-i-0 and the pairs i,j with the largest
+    //saving d(0,i) + d(0,j) - d(i,j) join their routes end to end while the load fits. Only pairs where one is among
+    //the K nearest neighbours of the other are tried, so the list has at most n K entries instead of n^2 / 2.
+
+    public static int Neighbours = 20; //K when the solution has no candidate lists of its own
+
+    private final int[] Demand;
+    private final int Capacity;
+    private final DistanceProvider CostMatrix;
+
+    //A route is a path of customers, Link[2i] and Link[2i+1] are the two neighbours of i (0 = depot, an end of the path)
+    private int[] Link;
+    private int[] Parent;    //Union-find over the customers, the root holds the route load
+    private int[] RouteLoad;
+    private int[] Sizes;     //Customers on the route, also kept at the root
+
+    SavingsConstruction(int[] Demand, int Capacity, DistanceProvider CostMatrix)
+    {
+        this.Demand = Demand;
+        this.Capacity = Capacity;
+        this.CostMatrix = CostMatrix;
+    }
+
+    public int[][] Routes(int K) //Customer sequences without the depot
+    {
+        int n = Demand.length; //Nodes including the depot
+        Link = new int[2 * n];
+        Parent = new int[n];
+        RouteLoad = new int[n];
+        Sizes = new int[n];
+        for (int i = 1; i < n; i++) {
+            Parent[i] = i;
+            RouteLoad[i] = Demand[i];
+            Sizes[i] = 1;
+        }
+
+        K = Math.min(K, n - 1);
+        if (K > 0)
+        {
+            int[][] Nearest = CostMatrix.NearestNeighbours(K);
+            int Pairs = 0;
+            int[] PairI = new int[(n - 1) * K], PairJ = new int[(n - 1) * K];
+            long[] Key = new long[(n - 1) * K];
+
+            for (int i = 1; i < n; i++) {
+                for (int j : Nearest[i]) {
+                    if (j == 0) continue;
+                    if (j < i && Contains(Nearest[j], i)) continue; //Already listed from j
+                    double Saving = CostMatrix.Distance(0, i) + CostMatrix.Distance(0, j) - CostMatrix.Distance(i, j);
+                    if (!(Saving > 0)) continue;
+                    PairI[Pairs] = i;
+                    PairJ[Pairs] = j;
+                    Key[Pairs] = Long.MAX_VALUE - Double.doubleToLongBits(Saving); //Positive doubles order like their bits
+                    Pairs++;
+                }
+            }
+
+            int[] Order = RadixOrder(Key, Pairs);
+            for (int p = 0; p < Pairs; p++) {
+                Join(PairI[Order[p]], PairJ[Order[p]]);
+            }
+        }
+
+        //Walk every path from its lower numbered end
+        int Count = 0;
+        for (int i = 1; i < n; i++) {
+            if (Find(i) == i) Count++;
+        }
+        int[][] Routes = new int[Count][];
+        int r = 0;
+        boolean[] Done = new boolean[n];
+        for (int i = 1; i < n; i++) {
+            if (Done[i] || (Link[2 * i] != 0 && Link[2 * i + 1] != 0)) continue;
+            int[] Route = new int[Size(i)];
+            int Prev = 0, Cur = i, k = 0;
+            while (Cur != 0) {
+                Route[k++] = Cur;
+                Done[Cur] = true;
+                int Next = (Link[2 * Cur] != Prev) ? Link[2 * Cur] : Link[2 * Cur + 1];
+                Prev = Cur;
+                Cur = Next;
+            }
+            Routes[r++] = Route;
+        }
+        return Routes;
+    }
+
+    private void Join(int i, int j)
+    {
+        int Ri = Find(i), Rj = Find(j);
+        if (Ri == Rj) return;
+        if (RouteLoad[Ri] + RouteLoad[Rj] > Capacity) return;
+        int Ei = FreeEnd(i), Ej = FreeEnd(j);
+        if (Ei < 0 || Ej < 0) return; //Inside its route, the depot is not next to it
+
+        Link[Ei] = j;
+        Link[Ej] = i;
+        Parent[Rj] = Ri;
+        RouteLoad[Ri] += RouteLoad[Rj];
+        Sizes[Ri] += Sizes[Rj];
+    }
+
+    private int FreeEnd(int i)
+    {
+        if (Link[2 * i] == 0) return 2 * i;
+        if (Link[2 * i + 1] == 0) return 2 * i + 1;
+        return -1;
+    }
+
+    private int Find(int i)
+    {
+        while (Parent[i] != i) {
+            Parent[i] = Parent[Parent[i]]; //Path halving
+            i = Parent[i];
+        }
+        return i;
+    }
+
+    private int Size(int i)
+    {
+        return Sizes[Find(i)];
+    }
+
+    private static boolean Contains(int[] List, int v)
+    {
+        for (int x : List) {
+            if (x == v) return true;
+        }
+        return false;
+    }
+
+    static int[] RadixOrder(long[] Key, int Size) //Indices in ascending Key order, equal keys keep their order
+    {
+        int[] Order = new int[Size], Swap = new int[Size];
+        for (int i = 0; i < Size; i++) {
+            Order[i] = i;
+        }
+        int[] Count = new int[1 << 16];
+        for (int Shift = 0; Shift < 64; Shift += 16) {
+            Arrays.fill(Count, 0);
+            for (int i = 0; i < Size; i++) {
+                Count[(int) (Key[i] >>> Shift) & 0xFFFF]++;
+            }
+            if (Size == 0 || Count[(int) (Key[0] >>> Shift) & 0xFFFF] == Size) continue; //Same digit everywhere
+
+            int Sum = 0;
+            for (int d = 0; d < Count.length; d++) {
+                int c = Count[d];
+                Count[d] = Sum;
+                Sum += c;
+            }
+            for (int i = 0; i < Size; i++) {
+                int o = Order[i];
+                Swap[Count[(int) (Key[o] >>> Shift) & 0xFFFF]++] = o;
+            }
+            int[] t = Order; Order = Swap; Swap = t;
+        }
+        return Order;
+    }
+}
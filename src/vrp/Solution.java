@@ -0,0 +1,1355 @@
+/*
+ * Created by Nikolaos Michail
+ */
+
+package vrp;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+class Solution
+{
+    int NoOfVehicles;
+    int NoOfCustomers;
+    Vehicle[] Vehicles;
+    double Cost;
+
+    //Instance Data, indexed by NodeId (0 is the depot)
+    public int[] Demand;
+    public int[] NodeX, NodeY;
+    public boolean[] Routed; //Customers already put in a route by the greedy construction
+
+    //Greedy Construction uses a spatial index, costs must be Euclidean distances of NodeX/NodeY (rounded or not)
+    public boolean SpatialGreedy = false;
+
+    //Granular Neighborhood: only insertions next to the CandidateListSize nearest nodes are tried (0 = full neighborhood)
+    public int CandidateListSize = 0;
+    private MatrixDistance WrappedMatrix; //Provider for callers passing a plain double[][]
+    int[][] CandidateLists; //Shared with the DistanceProvider, read only
+    int[] RouteOf, PositionOf; //Vehicle index and route position of every customer
+
+    //Parallel move evaluation, source routes are split over a ForkJoinPool when Threads > 1
+    public int Threads = 1;
+    private ForkJoinPool Pool;
+
+    //Moves of the local searches, MoveOperators flags. The others are tried when no relocation improves,
+    //Tabu search only relocates and uses them to polish its best solution.
+    public int Operators = MoveOperators.Relocate;
+
+    //Move Cache: best relocate out of every route. After a move the changed routes are recomputed and the other
+    //routes only try the changed ones, with candidate lists only the routes of customers next to a changed route.
+    public boolean UseMoveCache = true;
+    RelocateMove[] RouteMoves;
+    boolean[] RouteChanged, RouteTouched;
+    boolean[] InnerDepot; //Route has a depot visit between its ends, moved like a customer
+    int[] ReverseStart, ReverseNodes; //Customers having node w in their candidate list: ReverseNodes[ReverseStart[w]..ReverseStart[w+1])
+    private int[][] ReverseOf; //Candidate lists the reverse index belongs to
+
+    //Tabu Variables
+    double BestSolutionCost;
+    //Relocations applied since the best solution: route from, index, route to, final index of the customer.
+    //A new best only empties the journal, the best routes are restored by undoing it once at the end.
+    //A long stretch without a new best would make the journal grow without end and its undo costly, so once it holds
+    //as many entries as the routes have nodes the best routes are copied into BestRoutes and journaling stops.
+    int[] Journal = new int[64];
+    int JournalLength = -1; //Entries times 4, -1 = not journaling, -2 = the best routes are in BestRoutes
+    int[][] BestRoutes;     //Route of every vehicle in the best solution, BestRouteLengths[v] nodes of it
+    int[] BestRouteLengths, BestLoads;
+    //State of the last Tabu search, kept so ContinueTabuSearch can go on from it
+    TabuMemory Tabu;
+    int TabuIteration;       //Iterations since StartTabuSearch
+    int TabuLastImprovement; //Iteration of the last new best
+    int TabuHorizon;         //Horizon of the last Tabu search
+    public int TabuRandomDelay = 5; //The tenure of an arc is the horizon plus 0..TabuRandomDelay-1 iterations
+
+    //Cost Trace of every search, written to <TracePrefix><Search>.txt in the background
+    public boolean WriteTraces = true;
+    public String TracePrefix = "PastSolutions"; //Give every solve its own prefix when several run side by side
+    public CostTrace Trace; //Trace of the running or last search, null when traces are off
+
+    public Random TabuRan = new Random(); //Random part of the Tabu tenure, seed it for a reproducible search
+    public Random GreedyRan = null;       //Opens the greedy routes at random customers (null = nearest customer)
+
+    public SolutionListener Listener = null; //Gets a copy of every new best solution of every search
+    public SolverCounters Counters = null;   //Progress readable from other threads while a search runs (null = off)
+    public TabuCheckpoint Checkpoint = null; //Saves the Tabu search state in the background while it runs (null = off)
+
+    private DynamicUpdates Updates; //Created by the first customer insertion or cancellation
+
+    public long MovesEvaluated; //Neighbour solutions whose cost was computed, over all searches
+    public long CapacityRejected; //Insertions skipped because the customer does not fit, over all searches
+    public long TabuRejected;     //Moves skipped because they would add a Tabu arc
+
+    Solution(int CustNum, int VechNum , int VechCap)
+    {
+        this.NoOfVehicles = VechNum;
+        this.NoOfCustomers = CustNum;
+        this.Cost = 0;
+        Vehicles = new Vehicle[NoOfVehicles];
+
+        for (int i = 0 ; i < NoOfVehicles; i++)
+        {
+            Vehicles[i] = new Vehicle(i+1,VechCap);
+        }
+    }
+
+    public void Reset(int CustNum, int VechNum, int VechCap) //Empty solution for another instance, keeps the buffers
+    {
+        this.NoOfCustomers = CustNum;
+        this.NoOfVehicles = VechNum;
+        this.Cost = 0;
+        if (Vehicles.length != VechNum)
+        {
+            int Kept = Math.min(Vehicles.length, VechNum);
+            Vehicles = Arrays.copyOf(Vehicles, VechNum);
+            for (int i = Kept; i < VechNum; i++) {
+                Vehicles[i] = new Vehicle(i + 1, VechCap);
+            }
+        }
+        for (Vehicle v : Vehicles) {
+            v.Clear();
+            v.capacity = VechCap;
+        }
+        if (Routed != null) Arrays.fill(Routed, false);
+
+        BestSolutionCost = 0;
+        JournalLength = -1;
+        Tabu = null;
+        TabuIteration = TabuLastImprovement = 0;
+        Trace = null;
+        Listener = null;
+        Counters = null;
+        Checkpoint = null;
+        Updates = null;
+        MovesEvaluated = CapacityRejected = TabuRejected = 0;
+    }
+
+    public void SetNodes(Node[] Nodes) //Copy the instance into flat arrays used by all searches
+    {
+        if (Demand == null || Demand.length != Nodes.length)
+        {
+            Demand = new int[Nodes.length];
+            NodeX = new int[Nodes.length];
+            NodeY = new int[Nodes.length];
+            Routed = new boolean[Nodes.length];
+        }
+        for (int i = 0; i < Nodes.length; i++)
+        {
+            Demand[i] = Nodes[i].demand;
+            NodeX[i] = Nodes[i].Node_X;
+            NodeY[i] = Nodes[i].Node_Y;
+        }
+    }
+
+    public boolean UnassignedCustomerExists()
+    {
+        for (int i = 1; i < Routed.length; i++)
+        {
+            if (!Routed[i])
+                return true;
+        }
+        return false;
+    }
+
+    private int[] ShuffledCustomers(Random Ran)
+    {
+        int[] Order = new int[NoOfCustomers];
+        for (int i = 0; i < NoOfCustomers; i++) {
+            Order[i] = i + 1;
+        }
+        for (int i = NoOfCustomers - 1; i > 0; i--) {
+            int j = Ran.nextInt(i + 1);
+            int t = Order[i]; Order[i] = Order[j]; Order[j] = t;
+        }
+        return Order;
+    }
+
+    DistanceProvider Distances(double[][] CostMatrix) //Keeps one wrapper per matrix so its candidate lists are reused
+    {
+        if (WrappedMatrix == null || WrappedMatrix.Matrix() != CostMatrix)
+            WrappedMatrix = new MatrixDistance(CostMatrix);
+        return WrappedMatrix;
+    }
+
+    public void GreedySolution(Node[] Nodes , double[][] CostMatrix) {
+        GreedySolution(Nodes, Distances(CostMatrix));
+    }
+
+    public void GreedySolution(Node[] Nodes , DistanceProvider CostMatrix) {
+
+        double CandCost,EndCost;
+        int VehIndex = 0;
+
+        SetNodes(Nodes);
+        Object Phase = BeginPhase("Greedy");
+
+        //Spatial index over the unrouted customers, only valid when costs are the (rounded) Euclidean distances
+        CustomerGrid Grid = SpatialGreedy ? new CustomerGrid(NodeX, NodeY, Demand, Routed) : null;
+
+        //Randomised construction: every route is opened at the next unrouted customer of a shuffled order
+        int[] OpenOrder = (GreedyRan != null) ? ShuffledCustomers(GreedyRan) : null;
+        int OpenNext = 0;
+
+        while ((Grid != null) ? (Grid.Unassigned > 0) : UnassignedCustomerExists()) {
+
+            int CustIndex = 0;
+            double minCost = (float) Double.MAX_VALUE;
+
+            if (Vehicles[VehIndex].RouteLength == 0)
+            {
+                Vehicles[VehIndex].AddNode(0, 0);
+            }
+
+            while (OpenOrder != null && OpenNext < OpenOrder.length && Routed[OpenOrder[OpenNext]]) OpenNext++;
+
+            if (OpenOrder != null && Vehicles[VehIndex].CurLoc == 0 && OpenNext < OpenOrder.length
+                    && Vehicles[VehIndex].CheckIfFits(Demand[OpenOrder[OpenNext]]))
+            {
+                CustIndex = OpenOrder[OpenNext]; //Open the route at a random customer
+                minCost = CostMatrix.Distance(0, CustIndex);
+            }
+            else if (Grid != null)
+            {
+                CustIndex = Grid.Nearest(Vehicles[VehIndex].CurLoc,
+                        Vehicles[VehIndex].capacity - Vehicles[VehIndex].load, CostMatrix);
+                if (CustIndex != 0)
+                    minCost = CostMatrix.Distance(Vehicles[VehIndex].CurLoc, CustIndex);
+            }
+            else
+            {
+                for (int i = 1; i <= NoOfCustomers; i++) {
+                    if (Routed[i] == false) {
+                        if (Vehicles[VehIndex].CheckIfFits(Demand[i])) {
+                            CandCost = CostMatrix.Distance(Vehicles[VehIndex].CurLoc, i);
+                            if (minCost > CandCost) {
+                                minCost = CandCost;
+                                CustIndex = i;
+                            }
+                        }
+                    }
+                }
+            }
+
+            if ( CustIndex == 0 )
+            {
+                //Not a single Customer Fits
+                if ( VehIndex+1 < Vehicles.length ) //We have more vehicles to assign
+                {
+                    if (Vehicles[VehIndex].CurLoc != 0) {//End this route
+                        EndCost = CostMatrix.Distance(Vehicles[VehIndex].CurLoc, 0);
+                        Vehicles[VehIndex].AddNode(0, 0);
+                        this.Cost +=  EndCost;
+                    }
+                    VehIndex = VehIndex+1; //Go to next Vehicle
+                }
+                else //We DO NOT have any more vehicle to assign. The problem is unsolved under these parameters
+                {
+                    EndPhase(Phase, 0, 0, 0);
+                    throw new IllegalStateException("The rest customers do not fit in any Vehicle\n" +
+                            "The problem cannot be resolved under these constrains");
+                }
+            }
+            else
+            {
+                Vehicles[VehIndex].AddNode(CustIndex, Demand[CustIndex]);//If a fitting Customer is Found
+                Routed[CustIndex] = true;
+                if (Grid != null) Grid.Remove(CustIndex);
+                this.Cost += minCost;
+            }
+        }
+
+        EndCost = CostMatrix.Distance(Vehicles[VehIndex].CurLoc, 0);
+        Vehicles[VehIndex].AddNode(0, 0);
+        this.Cost +=  EndCost;
+
+        Publish("Greedy", 0);
+        EndPhase(Phase, 0, 0, 0);
+    }
+
+    public void SavingsSolution(Node[] Nodes , double[][] CostMatrix) {
+        SavingsSolution(Nodes, Distances(CostMatrix));
+    }
+
+    public void SavingsSolution(Node[] Nodes , DistanceProvider CostMatrix) {
+
+        //Clarke-Wright savings over the candidate lists (or the SavingsConstruction.Neighbours nearest nodes).
+        //If the routes need more vehicles than we have the greedy construction is used instead.
+        SetNodes(Nodes);
+        Object Phase = BeginPhase("Savings");
+
+        int K = (CandidateListSize > 0) ? CandidateListSize : SavingsConstruction.Neighbours;
+        int[][] Routes = new SavingsConstruction(Demand, Vehicles[0].capacity, CostMatrix).Routes(K);
+
+        if (Routes.length > NoOfVehicles)
+        {
+            EndPhase(Phase, 0, 0, 0);
+            GreedySolution(Nodes, CostMatrix);
+            return;
+        }
+
+        this.Cost = 0;
+        for (int VehIndex = 0; VehIndex < NoOfVehicles; VehIndex++) {
+            Vehicles[VehIndex].Clear();
+        }
+        for (int r = 0; r < Routes.length; r++) {
+            Vehicle v = Vehicles[r];
+            v.AddNode(0, 0);
+            for (int Customer : Routes[r]) {
+                this.Cost += CostMatrix.Distance(v.CurLoc, Customer);
+                v.AddNode(Customer, Demand[Customer]);
+                Routed[Customer] = true;
+            }
+            this.Cost += CostMatrix.Distance(v.CurLoc, 0);
+            v.AddNode(0, 0);
+        }
+
+        Publish("Savings", 0);
+        EndPhase(Phase, 0, 0, 0);
+    }
+
+    CostTrace OpenTrace(String Search, String Header)
+    {
+        Trace = WriteTraces ? new CostTrace(TracePrefix + Search + ".txt", Header) : null;
+        return Trace;
+    }
+
+    void Publish(String Search, int Iteration)
+    {
+        Publish(Search, Iteration, this.Cost, this.Vehicles);
+    }
+
+    void Publish(String Search, int Iteration, double Cost, Vehicle[] Routes) //Searches keeping their best apart
+    {
+        if (Counters != null)
+            Counters.Improved(Iteration, Cost);
+        SolverEvents.Improvement(Search, Iteration, Cost);
+        if (Listener != null)
+            Listener.NewBest(new SolutionUpdate(Search, Iteration, Cost, Routes));
+    }
+
+    Object BeginPhase(String Search) //Returns the Flight Recorder token for EndPhase
+    {
+        if (Counters != null)
+            Counters.Begin(Search, this);
+        return SolverEvents.BeginPhase(Search);
+    }
+
+    void Progress(int Iteration)
+    {
+        if (Counters != null)
+            Counters.Update(Iteration, this);
+    }
+
+    void EndPhase(Object Phase, int Iterations, long MovesAtStart, double StartCost)
+    {
+        Progress(Iterations);
+        SolverEvents.EndPhase(Phase, Iterations, MovesEvaluated - MovesAtStart, StartCost, this.Cost);
+    }
+
+
+    public void TabuSearch(int TABU_Horizon, double[][] CostMatrix) {
+        TabuSearch(TABU_Horizon, Distances(CostMatrix));
+    }
+
+    public void TabuSearch(int TABU_Horizon, DistanceProvider CostMatrix) {
+        TabuSearch(TABU_Horizon, CostMatrix, StopCondition.Iterations(200));
+    }
+
+    public void TabuSearch(int TABU_Horizon, DistanceProvider CostMatrix, StopCondition Stop) {
+
+        CostTrace Trace = OpenTrace("Tabu", "Solutions");
+        Object Phase = BeginPhase("Tabu");
+        long MovesAtStart = MovesEvaluated;
+        double StartCost = this.Cost;
+
+        StartTabuSearch(CostMatrix);
+        TabuIterations(TABU_Horizon, CostMatrix, Stop, Trace);
+        FinishTabuSearch(CostMatrix);
+
+        EndPhase(Phase, TabuIteration, MovesAtStart, StartCost);
+        if (Trace != null) Trace.Close();
+    }
+
+    public void StartTabuSearch(DistanceProvider CostMatrix) //Empty Tabu memory, the current routes are the best
+    {
+        Tabu = TabuMemory.Create(CostMatrix.Dimension());
+        TabuIteration = 0;
+        TabuLastImprovement = 0;
+        SaveBestSolution(); //Initial Solution
+    }
+
+    public void ContinueTabuSearch(int TABU_Horizon, DistanceProvider CostMatrix, StopCondition Stop)
+    {
+        //Goes on from the Tabu state of an earlier call, Stop sees the iterations since StartTabuSearch.
+        //The search ends on its current routes, FinishTabuSearch goes back to the best ones.
+        if (Tabu == null)
+            StartTabuSearch(CostMatrix);
+        TabuIterations(TABU_Horizon, CostMatrix, Stop, null);
+    }
+
+    public void FinishTabuSearch(DistanceProvider CostMatrix)
+    {
+        RestoreBestSolution();
+
+        if (MoveOperators.Any(Operators, false)) //Descend from the best solution with the other moves
+        {
+            MoveOperators Others = new MoveOperators(this, CostMatrix, Operators & ~MoveOperators.Relocate, false);
+            double Gain;
+            while ((Gain = Others.Improve()) < 0) {
+                this.Cost += Gain;
+                Publish("Tabu", TabuIteration);
+            }
+        }
+    }
+
+    private void TabuIterations(int TABU_Horizon, DistanceProvider CostMatrix, StopCondition Stop, CostTrace Trace) {
+
+        //We use 1-0 exchange move
+        int[] RouteFrom;
+        int[] RouteTo;
+
+        RelocateMove BestMove = new RelocateMove();
+        double BestNCost;
+
+        int SwapIndexA, SwapIndexB, SwapRouteFrom, SwapRouteTo;
+
+        long StartNanos = System.nanoTime();
+        TabuHorizon = TABU_Horizon;
+
+        PrepareNeighborhood(CostMatrix);
+
+        if (JournalLength == -1) //The routes were restored or replaced since the last call, they are the best now
+            SaveBestSolution();
+
+        boolean Termination = Stop.Reached(TabuIteration, TabuIteration - TabuLastImprovement, StartNanos);
+
+        while (!Termination)
+        {
+            TabuIteration++;
+            Tabu.Iteration = TabuIteration;
+
+            FindBestRelocate(CostMatrix, Tabu, BestMove);
+            BestNCost = BestMove.Cost;
+            SwapIndexA = BestMove.IndexA;
+            SwapIndexB = BestMove.IndexB;
+            SwapRouteFrom = BestMove.RouteFrom;
+            SwapRouteTo = BestMove.RouteTo;
+
+            if (SwapRouteFrom != -1) //Every move may be Tabu, then we only let the Tabu list age
+            {
+                RouteFrom = this.Vehicles[SwapRouteFrom].Route;
+                RouteTo = this.Vehicles[SwapRouteTo].Route;
+
+                int SwapNode = RouteFrom[SwapIndexA];
+
+                int NodeIDBefore = RouteFrom[SwapIndexA - 1];
+                int NodeIDAfter = RouteFrom[SwapIndexA + 1];
+                int NodeID_F = RouteTo[SwapIndexB];
+                int NodeID_G = RouteTo[SwapIndexB + 1];
+
+                int RendomDelay1 = TabuRan.nextInt(TabuRandomDelay);
+                int RendomDelay2 = TabuRan.nextInt(TabuRandomDelay);
+                int RendomDelay3 = TabuRan.nextInt(TabuRandomDelay);
+
+                //Removed arcs may not be added back during the next iterations
+                Tabu.MakeTabu(NodeIDBefore, SwapNode, TABU_Horizon + RendomDelay1);
+                Tabu.MakeTabu(SwapNode, NodeIDAfter, TABU_Horizon + RendomDelay2);
+                Tabu.MakeTabu(NodeID_F, NodeID_G, TABU_Horizon + RendomDelay3);
+                if (NodeID_F == 0 && NodeID_G == 0)
+                {
+                    InvalidateMoveCache(); //An empty depot to depot arc appears in every route
+                }
+
+                ApplyRelocate(SwapRouteFrom, SwapIndexA, SwapRouteTo, SwapIndexB);
+
+                if (Trace != null) Trace.Add(this.Cost);
+
+                this.Cost += BestNCost;
+
+                if (this.Cost < BestSolutionCost) {
+                    SaveBestSolution();
+                    TabuLastImprovement = TabuIteration;
+                    Publish("Tabu", TabuIteration);
+                }
+            }
+
+            Progress(TabuIteration);
+            if (Checkpoint != null) Checkpoint.Iteration(this);
+            if (Stop.Reached(TabuIteration, TabuIteration - TabuLastImprovement, StartNanos))
+            {
+                Termination = true;
+            }
+        }
+    }
+
+    public void PrepareNeighborhood(DistanceProvider CostMatrix)
+    {
+        InvalidateMoveCache();
+
+        //Granular neighborhood is used only when it actually restricts the search
+        int Dimension = CostMatrix.Dimension();
+        if (CandidateListSize <= 0 || CandidateListSize >= Dimension - 1)
+        {
+            CandidateLists = null;
+        }
+        else
+        {
+            CandidateLists = CostMatrix.NearestNeighbours(CandidateListSize); //Built once per provider
+        }
+
+        if (CandidateLists != null)
+        {
+            if (RouteOf == null || RouteOf.length != Dimension)
+            {
+                RouteOf = new int[Dimension];
+                PositionOf = new int[Dimension];
+            }
+            if (InnerDepot == null || InnerDepot.length != Vehicles.length)
+            {
+                InnerDepot = new boolean[Vehicles.length];
+            }
+            if (ReverseOf != CandidateLists)
+            {
+                BuildReverseLists();
+            }
+            for (int v = 0; v < Vehicles.length; v++)
+            {
+                IndexRoute(v);
+            }
+        }
+    }
+
+    void BuildReverseLists()
+    {
+        int Dimension = CandidateLists.length;
+        ReverseStart = new int[Dimension + 1];
+        for (int u = 1; u < Dimension; u++) { //The depot list is left out, routes with an inner depot are tracked instead
+            for (int w : CandidateLists[u]) ReverseStart[w + 1]++;
+        }
+        for (int w = 0; w < Dimension; w++) {
+            ReverseStart[w + 1] += ReverseStart[w];
+        }
+        ReverseNodes = new int[ReverseStart[Dimension]];
+        int[] Fill = Arrays.copyOf(ReverseStart, Dimension);
+        for (int u = 1; u < Dimension; u++) {
+            for (int w : CandidateLists[u]) ReverseNodes[Fill[w]++] = u;
+        }
+        ReverseOf = CandidateLists;
+    }
+
+    void IndexRoute(int VehIndex)
+    {
+        int[] rt = Vehicles[VehIndex].Route;
+        int Length = Vehicles[VehIndex].RouteLength;
+        boolean Inner = false;
+        for (int k = 0; k < Length; k++) {
+            RouteOf[rt[k]] = VehIndex;
+            PositionOf[rt[k]] = k;
+            if (rt[k] == 0 && k > 0 && k < Length - 1) Inner = true;
+        }
+        InnerDepot[VehIndex] = Inner;
+    }
+
+    public RelocateMove FindBestRelocate(DistanceProvider CostMatrix, TabuMemory Tabu, RelocateMove Best)
+    {
+        Best.Reset();
+
+        if (UseMoveCache)
+        {
+            RefreshMoveCache(CostMatrix, Tabu);
+            for (int VehIndexFrom = 0; VehIndexFrom < RouteMoves.length; VehIndexFrom++) {
+                RelocateMove M = RouteMoves[VehIndexFrom];
+                if (M.RouteFrom != -1 && Best.IsImprovedBy(M.Cost, M.RouteFrom, M.IndexA, M.RouteTo, M.IndexB)) {
+                    Best.Set(M.Cost, M.RouteFrom, M.IndexA, M.RouteTo, M.IndexB);
+                }
+            }
+        }
+        else if (CandidateLists != null)
+        {
+            EvaluateRelocate(true, CostMatrix, Tabu, Best);
+        }
+
+        if (Best.RouteFrom != -1 || (UseMoveCache && CandidateLists == null))
+        {
+            return Best;
+        }
+
+        //No candidate move is allowed, fall back to the full neighborhood
+        EvaluateRelocate(false, CostMatrix, Tabu, Best);
+        return Best;
+    }
+
+    void EvaluateRelocate(boolean Granular, DistanceProvider CostMatrix, TabuMemory Tabu, RelocateMove Best)
+    {
+        if (UsePool())
+        {
+            RelocateMove Found = Pool.invoke(new RelocateTask(this, Granular, CostMatrix, Tabu,
+                    0, this.Vehicles.length, Math.max(1, this.Vehicles.length / (4 * Threads))));
+            if (Found.RouteFrom != -1 && Best.IsImprovedBy(Found.Cost, Found.RouteFrom, Found.IndexA, Found.RouteTo, Found.IndexB))
+            {
+                Best.Set(Found.Cost, Found.RouteFrom, Found.IndexA, Found.RouteTo, Found.IndexB);
+            }
+            Count(Found.Tally);
+            return;
+        }
+
+        MoveTally Tally = new MoveTally();
+        EvaluateRelocateRange(Granular, CostMatrix, Tabu, 0, this.Vehicles.length, Best, Tally);
+        Count(Tally);
+    }
+
+    void Count(MoveTally Tally)
+    {
+        MovesEvaluated += Tally.Evaluated;
+        CapacityRejected += Tally.CapacityRejected;
+        TabuRejected += Tally.TabuRejected;
+    }
+
+    private boolean UsePool()
+    {
+        if (Threads <= 1 || this.Vehicles.length <= 1)
+            return false;
+        if (Pool == null || Pool.getParallelism() != Threads)
+        {
+            if (Pool != null) Pool.shutdown();
+            Pool = new ForkJoinPool(Threads);
+        }
+        return true;
+    }
+
+    void EvaluateRelocateRange(boolean Granular, DistanceProvider CostMatrix, TabuMemory Tabu, int FromLow, int FromHigh,
+                               RelocateMove Best, MoveTally Tally)
+    {
+        RelocateMove[] Targets = new RelocateMove[this.Vehicles.length];
+        Arrays.fill(Targets, Best); //Every destination route reports to the same move
+
+        for (int VehIndexFrom = FromLow; VehIndexFrom < FromHigh; VehIndexFrom++) {
+            if (Granular)
+                EvaluateRelocateGranular(VehIndexFrom, CostMatrix, Tabu, Targets, null, Tally);
+            else
+                EvaluateRelocateFull(VehIndexFrom, CostMatrix, Tabu, Targets, null, Tally);
+        }
+    }
+
+    void InvalidateMoveCache()
+    {
+        if (RouteChanged != null)
+            Arrays.fill(RouteChanged, true);
+    }
+
+    void RefreshMoveCache(DistanceProvider CostMatrix, TabuMemory Tabu)
+    {
+        int V = this.Vehicles.length;
+        if (RouteMoves == null || RouteMoves.length != V)
+        {
+            RouteMoves = new RelocateMove[V];
+            for (int X = 0; X < V; X++)
+                RouteMoves[X] = new RelocateMove();
+            RouteChanged = new boolean[V];
+            RouteTouched = new boolean[V];
+            Arrays.fill(RouteChanged, true);
+        }
+
+        //Routes that may have a move into a changed route
+        boolean Granular = CandidateLists != null;
+        boolean AnyChanged = false;
+        for (int v = 0; v < V && !AnyChanged; v++) {
+            AnyChanged = RouteChanged[v];
+        }
+        if (!Granular || !AnyChanged)
+        {
+            Arrays.fill(RouteTouched, AnyChanged);
+        }
+        else
+        {
+            Arrays.fill(RouteTouched, false);
+            for (int v = 0; v < V; v++) {
+                if (InnerDepot[v]) RouteTouched[v] = true;
+                if (!RouteChanged[v]) continue;
+                int[] rt = Vehicles[v].Route;
+                for (int k = 1; k < Vehicles[v].RouteLength - 1; k++) {
+                    for (int p = ReverseStart[rt[k]]; p < ReverseStart[rt[k] + 1]; p++) {
+                        RouteTouched[RouteOf[ReverseNodes[p]]] = true;
+                    }
+                }
+            }
+            for (int p = ReverseStart[0]; p < ReverseStart[1]; p++) { //Insertions next to the depot reach every route
+                RouteTouched[RouteOf[ReverseNodes[p]]] = true;
+            }
+        }
+
+        if (UsePool())
+        {
+            Count(Pool.invoke(new MoveCacheTask(this, Granular, CostMatrix, Tabu, 0, V, Math.max(1, V / (4 * Threads)))));
+        }
+        else
+        {
+            MoveTally Tally = new MoveTally();
+            RefreshMoveCacheRange(Granular, CostMatrix, Tabu, 0, V, Tally);
+            Count(Tally);
+        }
+        Arrays.fill(RouteChanged, false);
+    }
+
+    void RefreshMoveCacheRange(boolean Granular, DistanceProvider CostMatrix, TabuMemory Tabu, int FromLow, int FromHigh, MoveTally Tally)
+    {
+        //A route is recomputed when it changed, when its best move went into a changed route or when a move
+        //that was Tabu for it is allowed again. A touched route only tries the changed routes and keeps the better move.
+        int V = this.Vehicles.length;
+        RelocateMove Found = new RelocateMove();
+        RelocateMove[] AllTargets = new RelocateMove[V];
+        RelocateMove[] ChangedTargets = new RelocateMove[V];
+        Arrays.fill(AllTargets, Found);
+        int ChangedCount = 0;
+        for (int v = 0; v < V; v++) {
+            if (RouteChanged[v]) { ChangedTargets[v] = Found; ChangedCount++; }
+        }
+        int[] ChangedRoutes = new int[ChangedCount];
+        for (int v = 0, c = 0; v < V; v++) {
+            if (RouteChanged[v]) ChangedRoutes[c++] = v;
+        }
+
+        for (int VehIndexFrom = FromLow; VehIndexFrom < FromHigh; VehIndexFrom++) {
+            RelocateMove M = RouteMoves[VehIndexFrom];
+            boolean Full = RouteChanged[VehIndexFrom]
+                    || (M.RouteTo != -1 && RouteChanged[M.RouteTo])
+                    || (Tabu != null && M.Unblock <= Tabu.Iteration);
+            if (!Full && !RouteTouched[VehIndexFrom]) continue;
+
+            RelocateMove[] Targets = Full ? AllTargets : ChangedTargets;
+            int[] TargetRoutes = Full ? null : ChangedRoutes;
+            Found.Reset();
+            if (Granular)
+                EvaluateRelocateGranular(VehIndexFrom, CostMatrix, Tabu, Targets, TargetRoutes, Tally);
+            else
+                EvaluateRelocateFull(VehIndexFrom, CostMatrix, Tabu, Targets, TargetRoutes, Tally);
+
+            if (Full) M.Reset();
+            if (Found.RouteFrom != -1 && M.IsImprovedBy(Found.Cost, Found.RouteFrom, Found.IndexA, Found.RouteTo, Found.IndexB)) {
+                M.Set(Found.Cost, Found.RouteFrom, Found.IndexA, Found.RouteTo, Found.IndexB);
+            }
+            M.Block(Found.Unblock);
+        }
+    }
+
+    void EvaluateRelocateFull(int VehIndexFrom, DistanceProvider CostMatrix, TabuMemory Tabu, RelocateMove[] Targets, int[] TargetRoutes,
+                              MoveTally Tally)
+    {
+        //Try every customer of route VehIndexFrom in every position of every route,
+        //the best move into route VehIndexTo is kept in Targets[VehIndexTo] (null = skip that route).
+        //TargetRoutes lists the routes with a target when only a few have one (null = scan all routes)
+        int TargetCount = (TargetRoutes == null) ? this.Vehicles.length : TargetRoutes.length;
+        int[] RouteFrom = this.Vehicles[VehIndexFrom].Route;
+        int RoutFromLength = this.Vehicles[VehIndexFrom].RouteLength;
+        long Evaluated = 0;
+
+        for (int i = 1; i < RoutFromLength - 1; i++) { //Not possible to move depot!
+
+            int Prev = RouteFrom[i - 1];
+            int Moving = RouteFrom[i];
+            int Next = RouteFrom[i + 1];
+            int MovingNodeDemand = Demand[Moving];
+
+            for (int t = 0; t < TargetCount; t++) {
+                int VehIndexTo = (TargetRoutes == null) ? t : TargetRoutes[t];
+                RelocateMove Best = Targets[VehIndexTo];
+                if (Best == null) continue;
+
+                int[] RouteTo = this.Vehicles[VehIndexTo].Route;
+                int RouteTolength = this.Vehicles[VehIndexTo].RouteLength;
+
+                if ((VehIndexFrom != VehIndexTo) && !this.Vehicles[VehIndexTo].CheckIfFits(MovingNodeDemand)) {
+                    //If we assign to a different route check capacity constrains
+                    //if in the new route is the same no need to check for capacity
+                    Tally.CapacityRejected++;
+                    continue;
+                }
+
+                for (int j = 0; (j < RouteTolength - 1); j++) {//Not possible to move after last Depot!
+
+                    if (((VehIndexFrom == VehIndexTo) && ((j == i) || (j == i - 1))) == false)  // Not a move that Changes solution cost
+                    {
+                        int PosJ = RouteTo[j];
+                        int PosJ1 = RouteTo[j + 1];
+
+                        //Check if the move is a Tabu! - If it is Tabu break
+                        if ((Tabu != null)
+                                && (Tabu.IsTabu(Prev, Next)
+                                || Tabu.IsTabu(PosJ, Moving)
+                                || Tabu.IsTabu(Moving, PosJ1))) {
+                            Best.Block(Math.max(Tabu.Expiry(Prev, Next),
+                                    Math.max(Tabu.Expiry(PosJ, Moving), Tabu.Expiry(Moving, PosJ1))) + 1);
+                            Tally.TabuRejected++;
+                            break;
+                        }
+
+                        double NeigthboorCost = CostMatrix.Distance(Prev, Next) + CostMatrix.Distance(PosJ, Moving) + CostMatrix.Distance(Moving, PosJ1)
+                                - CostMatrix.Distance(Prev, Moving) - CostMatrix.Distance(Moving, Next) - CostMatrix.Distance(PosJ, PosJ1);
+                        Evaluated++;
+
+                        if (Best.IsImprovedBy(NeigthboorCost, VehIndexFrom, i, VehIndexTo, j)) {
+                            Best.Set(NeigthboorCost, VehIndexFrom, i, VehIndexTo, j);
+                        }
+                    }
+                }
+            }
+        }
+        Tally.Evaluated += Evaluated;
+    }
+
+    void EvaluateRelocateGranular(int VehIndexFrom, DistanceProvider CostMatrix, TabuMemory Tabu, RelocateMove[] Targets, int[] TargetRoutes,
+                                  MoveTally Tally)
+    {
+        //Try every customer of route VehIndexFrom only next to its nearest neighbours
+        int TargetCount = (TargetRoutes == null) ? this.Vehicles.length : TargetRoutes.length;
+        int[] RouteFrom = this.Vehicles[VehIndexFrom].Route;
+        int RoutFromLength = this.Vehicles[VehIndexFrom].RouteLength;
+        long Evaluated = 0;
+
+        for (int i = 1; i < RoutFromLength - 1; i++) { //Not possible to move depot!
+
+            int Prev = RouteFrom[i - 1];
+            int Moving = RouteFrom[i];
+            int Next = RouteFrom[i + 1];
+            int MovingNodeDemand = Demand[Moving];
+
+            if ((Tabu != null) && Tabu.IsTabu(Prev, Next)) {
+                for (int t = 0; t < TargetCount; t++) {
+                    int VehIndexTo = (TargetRoutes == null) ? t : TargetRoutes[t];
+                    if (Targets[VehIndexTo] != null) Targets[VehIndexTo].Block(Tabu.Expiry(Prev, Next) + 1);
+                }
+                Tally.TabuRejected++;
+                continue;
+            }
+            double RemovalGain = CostMatrix.Distance(Prev, Next) - CostMatrix.Distance(Prev, Moving) - CostMatrix.Distance(Moving, Next);
+
+            int[] Cand = CandidateLists[Moving];
+            for (int c = 0; c < Cand.length; c++) {
+                int Neighbour = Cand[c];
+                if (Neighbour == 0)
+                {
+                    //The depot is in every route, insert right after the start or right before the end
+                    for (int t = 0; t < TargetCount; t++) {
+                        int VehIndexTo = (TargetRoutes == null) ? t : TargetRoutes[t];
+                        int LastInsert = this.Vehicles[VehIndexTo].RouteLength - 2;
+                        Evaluated += TryInsertion(VehIndexFrom, i, Moving, MovingNodeDemand, RemovalGain, VehIndexTo, 0, CostMatrix, Tabu, Targets, Tally);
+                        if (LastInsert > 0)
+                            Evaluated += TryInsertion(VehIndexFrom, i, Moving, MovingNodeDemand, RemovalGain, VehIndexTo, LastInsert, CostMatrix, Tabu, Targets, Tally);
+                    }
+                }
+                else
+                {
+                    int VehIndexTo = RouteOf[Neighbour];
+                    int Position = PositionOf[Neighbour];
+                    Evaluated += TryInsertion(VehIndexFrom, i, Moving, MovingNodeDemand, RemovalGain, VehIndexTo, Position - 1, CostMatrix, Tabu, Targets, Tally);
+                    Evaluated += TryInsertion(VehIndexFrom, i, Moving, MovingNodeDemand, RemovalGain, VehIndexTo, Position, CostMatrix, Tabu, Targets, Tally);
+                }
+            }
+        }
+        Tally.Evaluated += Evaluated;
+    }
+
+    private int TryInsertion(int VehIndexFrom, int i, int Moving, int MovingNodeDemand, double RemovalGain,
+                              int VehIndexTo, int j, DistanceProvider CostMatrix, TabuMemory Tabu, RelocateMove[] Targets,
+                              MoveTally Tally)
+    {
+        //Insert Moving between positions j and j+1 of route VehIndexTo
+        RelocateMove Best = Targets[VehIndexTo];
+        if (Best == null)
+            return 0;
+        if (j < 0 || j >= this.Vehicles[VehIndexTo].RouteLength - 1)
+            return 0;
+        if (VehIndexFrom == VehIndexTo) {
+            if ((j == i) || (j == i - 1)) return 0; // Not a move that Changes solution cost
+        }
+        else if (!this.Vehicles[VehIndexTo].CheckIfFits(MovingNodeDemand)) {
+            Tally.CapacityRejected++;
+            return 0;
+        }
+
+        int[] RouteTo = this.Vehicles[VehIndexTo].Route;
+        int PosJ = RouteTo[j];
+        int PosJ1 = RouteTo[j + 1];
+
+        if ((Tabu != null) && (Tabu.IsTabu(PosJ, Moving) || Tabu.IsTabu(Moving, PosJ1))) {
+            Best.Block(Math.max(Tabu.Expiry(PosJ, Moving), Tabu.Expiry(Moving, PosJ1)) + 1);
+            Tally.TabuRejected++;
+            return 0;
+        }
+
+        double NeigthboorCost = RemovalGain + CostMatrix.Distance(PosJ, Moving) + CostMatrix.Distance(Moving, PosJ1) - CostMatrix.Distance(PosJ, PosJ1);
+
+        if (Best.IsImprovedBy(NeigthboorCost, VehIndexFrom, i, VehIndexTo, j)) {
+            Best.Set(NeigthboorCost, VehIndexFrom, i, VehIndexTo, j);
+        }
+        return 1;
+    }
+
+    public void ApplyRelocate(int SwapRouteFrom, int SwapIndexA, int SwapRouteTo, int SwapIndexB)
+    {
+        //Move the customer at SwapIndexA of SwapRouteFrom after position SwapIndexB of SwapRouteTo
+        //(SwapIndexB refers to the route before the customer was removed)
+        int Position = (SwapRouteFrom == SwapRouteTo && SwapIndexA < SwapIndexB) ? SwapIndexB : SwapIndexB + 1;
+
+        if (JournalLength >= 4 * JournalLimit())
+            SnapshotBestSolution();
+        if (JournalLength >= 0)
+        {
+            if (JournalLength + 4 > Journal.length)
+                Journal = Arrays.copyOf(Journal, Journal.length * 2);
+            Journal[JournalLength++] = SwapRouteFrom;
+            Journal[JournalLength++] = SwapIndexA;
+            Journal[JournalLength++] = SwapRouteTo;
+            Journal[JournalLength++] = Position;
+        }
+        MoveNode(SwapRouteFrom, SwapIndexA, SwapRouteTo, Position);
+    }
+
+    private void MoveNode(int RouteFrom, int IndexFrom, int RouteTo, int IndexTo)
+    {
+        //The customer at IndexFrom of RouteFrom ends up at IndexTo of RouteTo
+        int SwapNode = this.Vehicles[RouteFrom].RemoveNode(IndexFrom);
+        this.Vehicles[RouteTo].InsertNode(IndexTo, SwapNode);
+
+        this.Vehicles[RouteFrom].load -= Demand[SwapNode];
+        this.Vehicles[RouteTo].load += Demand[SwapNode];
+
+        if (CandidateLists != null)
+        {
+            IndexRoute(RouteFrom);
+            if (RouteTo != RouteFrom)
+                IndexRoute(RouteTo);
+        }
+
+        if (RouteChanged != null)
+        {
+            RouteChanged[RouteFrom] = true;
+            RouteChanged[RouteTo] = true;
+        }
+    }
+
+    void RouteUpdated(int VehIndex) //Keep the indexes and the move cache in step with a changed route
+    {
+        if (CandidateLists != null)
+            IndexRoute(VehIndex);
+        if (RouteChanged != null)
+            RouteChanged[VehIndex] = true;
+    }
+
+    public void SaveBestSolution() //The current routes are the best, later relocations are journaled
+    {
+        BestSolutionCost = Cost;
+        JournalLength = 0;
+    }
+
+    private int JournalLimit() //Journal entries worth keeping: the nodes of all routes
+    {
+        int Nodes = 0;
+        for (Vehicle v : Vehicles) {
+            Nodes += v.RouteLength;
+        }
+        return Math.max(16, Nodes);
+    }
+
+    private void SnapshotBestSolution()
+    {
+        //Undo the journal to reach the best routes, copy them, and replay it to come back to the current routes
+        for (int e = JournalLength - 4; e >= 0; e -= 4) {
+            MoveNode(Journal[e + 2], Journal[e + 3], Journal[e], Journal[e + 1]);
+        }
+        if (BestRoutes == null || BestRoutes.length != Vehicles.length)
+        {
+            BestRoutes = new int[Vehicles.length][];
+            BestRouteLengths = new int[Vehicles.length];
+            BestLoads = new int[Vehicles.length];
+        }
+        for (int v = 0; v < Vehicles.length; v++) {
+            Vehicle veh = Vehicles[v];
+            if (BestRoutes[v] == null || BestRoutes[v].length < veh.RouteLength)
+                BestRoutes[v] = new int[veh.Route.length];
+            System.arraycopy(veh.Route, 0, BestRoutes[v], 0, veh.RouteLength);
+            BestRouteLengths[v] = veh.RouteLength;
+            BestLoads[v] = veh.load;
+        }
+        for (int e = 0; e < JournalLength; e += 4) {
+            MoveNode(Journal[e], Journal[e + 1], Journal[e + 2], Journal[e + 3]);
+        }
+        JournalLength = -2;
+    }
+
+    public void RestoreBestSolution() //Undo the journaled relocations, newest first, and stop journaling
+    {
+        if (JournalLength == -2)
+        {
+            for (int v = 0; v < Vehicles.length; v++) {
+                Vehicles[v].ReplaceTail(0, BestRoutes[v], BestRouteLengths[v]);
+                Vehicles[v].load = BestLoads[v];
+                RouteUpdated(v);
+            }
+        }
+        for (int e = JournalLength - 4; e >= 0; e -= 4) {
+            MoveNode(Journal[e + 2], Journal[e + 3], Journal[e], Journal[e + 1]);
+        }
+        JournalLength = -1;
+        this.Cost = BestSolutionCost;
+    }
+
+
+    public void InterRouteLocalSearch(Node[] Nodes,  double[][] CostMatrix) {
+        InterRouteLocalSearch(Nodes, Distances(CostMatrix));
+    }
+
+    public void InterRouteLocalSearch(Node[] Nodes,  DistanceProvider CostMatrix) {
+        InterRouteLocalSearch(Nodes, CostMatrix, StopCondition.Iterations(1000000));
+    }
+
+    public void InterRouteLocalSearch(Node[] Nodes,  DistanceProvider CostMatrix, StopCondition Stop) {
+
+        //We use 1-0 exchange move
+        RelocateMove BestMove = new RelocateMove();
+
+        int iteration_number= 0;
+        long StartNanos = System.nanoTime();
+        CostTrace Trace = OpenTrace("Inter", null);
+        Object Phase = BeginPhase("Inter");
+        long MovesAtStart = MovesEvaluated;
+        double StartCost = this.Cost;
+
+        PrepareNeighborhood(CostMatrix);
+        MoveOperators Others = MoveOperators.Any(Operators, false) ? new MoveOperators(this, CostMatrix, Operators, false) : null;
+
+        boolean Termination = false;
+
+        while (!Termination)
+        {
+            iteration_number++;
+
+            if ((Operators & MoveOperators.Relocate) != 0)
+                FindBestRelocate(CostMatrix, null, BestMove);
+            else
+                BestMove.Reset();
+
+            double Gain;
+            if (BestMove.Cost < 0) {// If Best Neightboor Cost is better than the current
+
+                ApplyRelocate(BestMove.RouteFrom, BestMove.IndexA, BestMove.RouteTo, BestMove.IndexB);
+
+                if (Trace != null) Trace.Add(this.Cost);
+                this.Cost  += BestMove.Cost;
+                Publish("Inter", iteration_number);
+            }
+            else if (Others != null && (Gain = Others.Improve()) < 0) { //Relocation is stuck, try the other moves
+
+                if (Trace != null) Trace.Add(this.Cost);
+                this.Cost  += Gain;
+                Publish("Inter", iteration_number);
+            }
+            else{
+                Termination = true;
+            }
+
+            Progress(iteration_number);
+            if (Stop.Reached(iteration_number, 0, StartNanos)) //Every applied move is a new best
+            {
+                Termination = true;
+            }
+        }
+        if (Trace != null) Trace.Add(this.Cost);
+
+        EndPhase(Phase, iteration_number, MovesAtStart, StartCost);
+        if (Trace != null) Trace.Close();
+    }
+
+    public void IntraRouteLocalSearch(Node[] Nodes,  double[][] CostMatrix) {
+        IntraRouteLocalSearch(Nodes, Distances(CostMatrix));
+    }
+
+    public void IntraRouteLocalSearch(Node[] Nodes,  DistanceProvider CostMatrix) {
+        IntraRouteLocalSearch(Nodes, CostMatrix, StopCondition.Iterations(1000000));
+    }
+
+    public void IntraRouteLocalSearch(Node[] Nodes,  DistanceProvider CostMatrix, StopCondition Stop) {
+
+        //We use 1-0 exchange move
+        int[] rt;
+        double BestNCost,NeigthboorCost;
+
+        int SwapIndexA = -1, SwapIndexB = -1, SwapRoute =-1;
+
+        int iteration_number= 0;
+        long StartNanos = System.nanoTime();
+        CostTrace Trace = OpenTrace("Intra", null);
+        Object Phase = BeginPhase("Intra");
+        long MovesAtStart = MovesEvaluated;
+        double StartCost = this.Cost;
+        MoveOperators Others = MoveOperators.Any(Operators, true) ? new MoveOperators(this, CostMatrix, Operators, true) : null;
+
+        boolean Termination = false;
+
+        while (!Termination)
+        {
+            iteration_number++;
+            BestNCost = Double.MAX_VALUE;
+
+            for (int VehIndex = 0; VehIndex < this.Vehicles.length && (Operators & MoveOperators.Relocate) != 0; VehIndex++) {
+                rt = this.Vehicles[VehIndex].Route;
+                int RoutLength = this.Vehicles[VehIndex].RouteLength;
+
+                for (int i = 1; i < RoutLength - 1; i++) { //Not possible to move depot!
+
+                    int Prev = rt[i - 1];
+                    int Moving = rt[i];
+                    int Next = rt[i + 1];
+                    double RemovalGain = CostMatrix.Distance(Prev, Next) - CostMatrix.Distance(Prev, Moving) - CostMatrix.Distance(Moving, Next);
+
+                    for (int j =  0 ; (j < RoutLength-1); j++) {//Not possible to move after last Depot!
+
+                        if ( ( j != i ) && (j != i-1) ) { // Not a move that cHanges solution cost
+
+                            NeigthboorCost = RemovalGain
+                                    + CostMatrix.Distance(rt[j], Moving) + CostMatrix.Distance(Moving, rt[j+1]) - CostMatrix.Distance(rt[j], rt[j+1]);
+
+                            if (NeigthboorCost < BestNCost) {
+                                BestNCost = NeigthboorCost;
+                                SwapIndexA  = i;
+                                SwapIndexB  = j;
+                                SwapRoute = VehIndex;
+
+                            }
+                        }
+                    }
+                }
+                if (RoutLength > 2)
+                    MovesEvaluated += (long) (RoutLength - 2) * (RoutLength - 3);
+            }
+
+            double Gain;
+            if (BestNCost < 0) {
+
+                ApplyRelocate(SwapRoute, SwapIndexA, SwapRoute, SwapIndexB);
+
+                if (Trace != null) Trace.Add(this.Cost);
+                this.Cost  += BestNCost;
+                Publish("Intra", iteration_number);
+            }
+            else if (Others != null && (Gain = Others.Improve()) < 0) { //Relocation is stuck, try the other moves
+
+                if (Trace != null) Trace.Add(this.Cost);
+                this.Cost  += Gain;
+                Publish("Intra", iteration_number);
+            }
+            else{
+                Termination = true;
+            }
+
+            Progress(iteration_number);
+            if (Stop.Reached(iteration_number, 0, StartNanos)) //Every applied move is a new best
+            {
+                Termination = true;
+            }
+        }
+        if (Trace != null) Trace.Add(this.Cost);
+
+        EndPhase(Phase, iteration_number, MovesAtStart, StartCost);
+        if (Trace != null) Trace.Close();
+    }
+
+    public DynamicUpdates Updates()
+    {
+        if (Updates == null) Updates = new DynamicUpdates(this);
+        return Updates;
+    }
+
+    public double InsertCustomer(int Customer, DistanceProvider CostMatrix) //Returns the change of the cost
+    {
+        return Updates().Insert(Customer, CostMatrix);
+    }
+
+    public double RemoveCustomer(int Customer, DistanceProvider CostMatrix) //Returns the change of the cost
+    {
+        return Updates().Remove(Customer, CostMatrix);
+    }
+
+    public double ApplyEvents(Iterable<CustomerEvent> Events, DistanceProvider CostMatrix)
+    {
+        double Delta = 0;
+        for (CustomerEvent e : Events) {
+            Delta += e.Insert ? InsertCustomer(e.Customer, CostMatrix) : RemoveCustomer(e.Customer, CostMatrix);
+        }
+        return Delta;
+    }
+
+    public void SolutionPrint(String Solution_Label)//Print Solution In console
+    {
+        System.out.println("=========================================================");
+        System.out.println(Solution_Label+"\n");
+
+        for (int j=0 ; j < NoOfVehicles ; j++)
+        {
+            if (Vehicles[j].RouteLength != 0)
+            {   System.out.print("Vehicle " + j + ":");
+                int RoutSize = Vehicles[j].RouteLength;
+                for (int k = 0; k < RoutSize ; k++) {
+                    if (k == RoutSize-1)
+                    { System.out.print(Vehicles[j].Route[k] );  }
+                    else
+                    { System.out.print(Vehicles[j].Route[k]+ "->"); }
+                }
+                System.out.println();
+            }
+        }
+        System.out.println("\nSolution Cost "+this.Cost+"\n");
+    }
+}
+
+class RelocateMove
+{
+    public double Cost;
+    public int RouteFrom, IndexA; //Customer at IndexA of RouteFrom
+    public int RouteTo, IndexB;   //is inserted after position IndexB of RouteTo
+    public int Unblock;           //First iteration in which a Tabu move skipped by the evaluation is allowed again
+    public MoveTally Tally;       //Moves counted to find this one (filled by RelocateTask)
+
+    public RelocateMove()
+    {
+        Reset();
+    }
+
+    public void Reset()
+    {
+        this.Cost = Double.MAX_VALUE;
+        this.RouteFrom = -1;
+        this.IndexA = -1;
+        this.RouteTo = -1;
+        this.IndexB = -1;
+        this.Unblock = Integer.MAX_VALUE;
+    }
+
+    public void Block(int iteration)
+    {
+        if (iteration < Unblock) Unblock = iteration;
+    }
+
+    public boolean IsImprovedBy(double cost, int from, int a, int to, int b)
+    {
+        //On equal cost keep the move a sequential scan (from, a, to, b) meets first
+        if (cost != this.Cost) return cost < this.Cost;
+        if (from != RouteFrom) return from < RouteFrom;
+        if (a != IndexA) return a < IndexA;
+        if (to != RouteTo) return to < RouteTo;
+        return b < IndexB;
+    }
+
+    public void Set(double cost, int from, int a, int to, int b)
+    {
+        this.Cost = cost;
+        this.RouteFrom = from;
+        this.IndexA = a;
+        this.RouteTo = to;
+        this.IndexB = b;
+    }
+}
+
+class MoveTally
+{
+    //Moves counted by one evaluation task, added to the Solution totals by the searching thread
+    public long Evaluated;
+    public long CapacityRejected;
+    public long TabuRejected;
+
+    public void Add(MoveTally Other)
+    {
+        Evaluated += Other.Evaluated;
+        CapacityRejected += Other.CapacityRejected;
+        TabuRejected += Other.TabuRejected;
+    }
+}
+
+class RelocateTask extends RecursiveTask<RelocateMove>
+{
+    private static final long serialVersionUID = 1L; //ForkJoinTask is Serializable, tasks are never serialized
+
+    //Evaluates the moves out of routes [FromLow, FromHigh) and reduces them to the best one.
+    //Ties keep the lower route index, so the result is the same as the sequential scan.
+    private final Solution Sol;
+    private final boolean Granular;
+    private final DistanceProvider CostMatrix;
+    private final TabuMemory Tabu;
+    private final int FromLow, FromHigh, Threshold;
+
+    RelocateTask(Solution sol, boolean granular, DistanceProvider costMatrix, TabuMemory tabu, int low, int high, int threshold)
+    {
+        this.Sol = sol;
+        this.Granular = granular;
+        this.CostMatrix = costMatrix;
+        this.Tabu = tabu;
+        this.FromLow = low;
+        this.FromHigh = high;
+        this.Threshold = threshold;
+    }
+
+    @Override
+    protected RelocateMove compute()
+    {
+        if (FromHigh - FromLow <= Threshold)
+        {
+            RelocateMove Best = new RelocateMove();
+            Best.Tally = new MoveTally();
+            Sol.EvaluateRelocateRange(Granular, CostMatrix, Tabu, FromLow, FromHigh, Best, Best.Tally);
+            return Best;
+        }
+
+        int Mid = (FromLow + FromHigh) >>> 1;
+        RelocateTask Left = new RelocateTask(Sol, Granular, CostMatrix, Tabu, FromLow, Mid, Threshold);
+        RelocateTask Right = new RelocateTask(Sol, Granular, CostMatrix, Tabu, Mid, FromHigh, Threshold);
+        Right.fork();
+        RelocateMove LeftBest = Left.compute();
+        RelocateMove RightBest = Right.join();
+        RelocateMove Best = (RightBest.Cost < LeftBest.Cost) ? RightBest : LeftBest;
+        RelocateMove Other = (Best == LeftBest) ? RightBest : LeftBest;
+        Best.Tally.Add(Other.Tally);
+        return Best;
+    }
+}
+
+class MoveCacheTask extends RecursiveTask<MoveTally>
+{
+    private static final long serialVersionUID = 1L; //ForkJoinTask is Serializable, tasks are never serialized
+
+    //Refreshes the cached moves out of routes [FromLow, FromHigh), every route is written by one task only
+    private final Solution Sol;
+    private final boolean Granular;
+    private final DistanceProvider CostMatrix;
+    private final TabuMemory Tabu;
+    private final int FromLow, FromHigh, Threshold;
+
+    MoveCacheTask(Solution sol, boolean granular, DistanceProvider costMatrix, TabuMemory tabu, int low, int high, int threshold)
+    {
+        this.Sol = sol;
+        this.Granular = granular;
+        this.CostMatrix = costMatrix;
+        this.Tabu = tabu;
+        this.FromLow = low;
+        this.FromHigh = high;
+        this.Threshold = threshold;
+    }
+
+    @Override
+    protected MoveTally compute()
+    {
+        if (FromHigh - FromLow <= Threshold)
+        {
+            MoveTally Tally = new MoveTally();
+            Sol.RefreshMoveCacheRange(Granular, CostMatrix, Tabu, FromLow, FromHigh, Tally);
+            return Tally;
+        }
+
+        int Mid = (FromLow + FromHigh) >>> 1;
+        MoveCacheTask Left = new MoveCacheTask(Sol, Granular, CostMatrix, Tabu, FromLow, Mid, Threshold);
+        MoveCacheTask Right = new MoveCacheTask(Sol, Granular, CostMatrix, Tabu, Mid, FromHigh, Threshold);
+        Right.fork();
+        MoveTally Tally = Left.compute();
+        Tally.Add(Right.join());
+        return Tally;
+    }
+}
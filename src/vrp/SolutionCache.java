@@ -0,0 +1,437 @@
+package vrp;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+class SolutionCache
+{
+    //Solved routes kept by a fingerprint of the instance: coordinates and demand of every node, capacity and fleet size.
+    //The MaxEntries most recently used instances stay in memory, with a Directory every stored solution is also
+    //written to <family>-<fingerprint>.cache there, the family being the depot and the capacity.
+    //Lookup fills an empty Solution of a new instance:
+    // - Exact: the same nodes (in any order) and fleet, the cached routes are the solution
+    // - Near:  an instance of the same family sharing at least MinShared of its customers, matched by coordinates and
+    //          demand. Its routes without the customers that are gone become the start, the new customers are added
+    //          with the incremental insertion (Solution.InsertCustomer), and a short Tabu search finishes it.
+    // - Miss:  the Solution is left empty for a cold start
+    //
+    //File layout (big endian): magic, version, dimension, vehicles, capacity, cost, per node (x, y, demand),
+    //routes (count, per route length and nodes), CRC32 of everything before it.
+
+    public static final int Miss = 0, Near = 1, Exact = 2;
+
+    public static final int Magic = 0x56525043; //"VRPC"
+    public static final int Version = 1;
+
+    public int MaxEntries;
+    public final Path Directory;           //Disk tier, null = memory only
+    public double MinShared = 0.8;         //Near match: shared customers over the customers of the larger instance
+    public int MaxDiskCandidates = 16;     //Most recent files of the family read when memory has no near match
+
+    public final AtomicLong ExactHits = new AtomicLong(), NearHits = new AtomicLong(), Misses = new AtomicLong();
+
+    private final LinkedHashMap<Long, CachedEntry> Entries = new LinkedHashMap<Long, CachedEntry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedEntry> Eldest)
+        {
+            return size() > MaxEntries;
+        }
+    };
+
+    private static class CachedEntry
+    {
+        long Fingerprint, Family;
+        int Vehicles, Capacity;
+        int[] X, Y, Demand; //Per node, 0 is the depot
+        int[][] Routes;     //Used routes only, depots included
+        double Cost;
+    }
+
+    SolutionCache(int MaxEntries, Path Directory) throws IOException
+    {
+        this.MaxEntries = MaxEntries;
+        this.Directory = Directory;
+        if (Directory != null)
+            Files.createDirectories(Directory);
+    }
+
+    public int Lookup(Solution s, Node[] Nodes, DistanceProvider CostMatrix)
+    {
+        //s is a new Solution of the instance (customers, vehicles, capacity), it gets the nodes and, unless it is a miss,
+        //routes covering every customer with their cost
+        s.SetNodes(Nodes);
+        int Capacity = s.Vehicles[0].capacity;
+        long Fingerprint = Fingerprint(s.NodeX, s.NodeY, s.Demand, s.Vehicles.length, Capacity);
+
+        CachedEntry Hit = Get(Fingerprint);
+        if (Hit == null && Directory != null)
+        {
+            Hit = Read(Directory.resolve(FileName(Family(s.NodeX[0], s.NodeY[0], Capacity), Fingerprint)));
+            if (Hit != null) Put(Hit);
+        }
+        if (Hit != null && Same(Hit, s))
+        {
+            for (int r = 0; r < Hit.Routes.length; r++) {
+                SetRoute(s, s.Vehicles[r], Hit.Routes[r], null);
+            }
+            s.Cost = RoutesCost(s, CostMatrix);
+            ExactHits.incrementAndGet();
+            return Exact;
+        }
+
+        CachedEntry Similar = MostSimilar(s);
+        if (Similar == null)
+        {
+            Misses.incrementAndGet();
+            return Miss;
+        }
+        int[] NewId = Match(Similar, s, Index(s));
+
+        int Shared = 0, r = 0;
+        for (int[] Route : Similar.Routes) {
+            Vehicle v = s.Vehicles[r];
+            Shared += SetRoute(s, v, Route, NewId);
+            if (v.RouteLength > 0) r++;
+        }
+        s.Cost = RoutesCost(s, CostMatrix);
+        if (Shared == s.NoOfCustomers && Similar.Demand.length == s.Demand.length && Similar.Vehicles == s.Vehicles.length)
+        {
+            ExactHits.incrementAndGet(); //Same nodes in another order
+            return Exact;
+        }
+
+        try {
+            for (int c = 1; c < s.Routed.length; c++) {
+                if (!s.Routed[c]) s.InsertCustomer(c, CostMatrix);
+            }
+        } catch (IllegalStateException e) {
+            for (Vehicle v : s.Vehicles) v.Clear(); //A new customer does not fit the cached routes, start cold
+            Arrays.fill(s.Routed, false);
+            s.Cost = 0;
+            Misses.incrementAndGet();
+            return Miss;
+        }
+        NearHits.incrementAndGet();
+        return Near;
+    }
+
+    public void Store(Solution s) throws IOException
+    {
+        //Keeps the routes of a solved instance, a solution leaving customers out is not stored
+        if (s.UnassignedCustomerExists())
+            return;
+        CachedEntry e = new CachedEntry();
+        e.X = s.NodeX.clone();
+        e.Y = s.NodeY.clone();
+        e.Demand = s.Demand.clone();
+        e.Vehicles = s.Vehicles.length;
+        e.Capacity = s.Vehicles[0].capacity;
+        e.Cost = s.Cost;
+        e.Fingerprint = Fingerprint(e.X, e.Y, e.Demand, e.Vehicles, e.Capacity);
+        e.Family = Family(e.X[0], e.Y[0], e.Capacity);
+        List<int[]> Routes = new ArrayList<>();
+        for (Vehicle v : s.Vehicles) {
+            if (v.RouteLength > 2) Routes.add(Arrays.copyOf(v.Route, v.RouteLength));
+        }
+        e.Routes = Routes.toArray(new int[0][]);
+
+        Put(e);
+        if (Directory != null)
+            Write(e);
+    }
+
+    private synchronized CachedEntry Get(long Fingerprint)
+    {
+        return Entries.get(Fingerprint);
+    }
+
+    private synchronized void Put(CachedEntry e)
+    {
+        Entries.put(e.Fingerprint, e);
+    }
+
+    private CachedEntry MostSimilar(Solution s)
+    {
+        //Same depot and capacity, enough routes for the fleet, the most shared customers (the most recent on ties)
+        long Family = Family(s.NodeX[0], s.NodeY[0], s.Vehicles[0].capacity);
+        List<CachedEntry> Candidates = new ArrayList<>();
+        synchronized (this) {
+            for (CachedEntry e : Entries.values()) {
+                if (e.Family == Family) Candidates.add(e);
+            }
+        }
+        Map<Long, int[]> Index = Index(s);
+        CachedEntry Best = Best(Candidates, s, Index);
+        if (Best != null || Directory == null)
+            return Best;
+
+        Set<Long> InMemory = new HashSet<>();
+        for (CachedEntry e : Candidates) InMemory.add(e.Fingerprint);
+        List<Path> Found = new ArrayList<>();
+        try (DirectoryStream<Path> Dir = Files.newDirectoryStream(Directory, String.format("%016x-*.cache", Family))) {
+            for (Path p : Dir) Found.add(p);
+        } catch (IOException e) {
+            return null;
+        }
+        final Map<Path, Long> Modified = new HashMap<>();
+        for (Path p : Found) {
+            try {
+                Modified.put(p, Files.getLastModifiedTime(p).toMillis());
+            } catch (IOException e) {
+                Modified.put(p, 0L);
+            }
+        }
+        Collections.sort(Found, new Comparator<Path>() {
+            @Override
+            public int compare(Path a, Path b)
+            {
+                int c = Long.compare(Modified.get(b), Modified.get(a));
+                return (c != 0) ? c : a.compareTo(b);
+            }
+        });
+
+        List<CachedEntry> FromDisk = new ArrayList<>();
+        for (Path p : Found) {
+            if (FromDisk.size() == MaxDiskCandidates) break;
+            CachedEntry e = Read(p);
+            if (e != null && e.Family == Family && !InMemory.contains(e.Fingerprint)) FromDisk.add(e);
+        }
+        Collections.reverse(FromDisk); //Oldest first like the memory entries
+        Best = Best(FromDisk, s, Index);
+        if (Best != null) Put(Best);
+        return Best;
+    }
+
+    private CachedEntry Best(List<CachedEntry> Candidates, Solution s, Map<Long, int[]> Index)
+    {
+        CachedEntry Best = null;
+        int BestShared = 0;
+        for (CachedEntry e : Candidates) {
+            if (e.Routes.length > s.Vehicles.length || e.X[0] != s.NodeX[0] || e.Y[0] != s.NodeY[0]) continue;
+            int[] NewId = Match(e, s, Index);
+            int Shared = 0;
+            for (int i = 1; i < NewId.length; i++) {
+                if (NewId[i] > 0) Shared++;
+            }
+            int Larger = Math.max(s.NoOfCustomers, e.Demand.length - 1);
+            if (Shared < MinShared * Larger || Shared == 0) continue;
+            if (Shared >= BestShared) {
+                Best = e;
+                BestShared = Shared;
+            }
+        }
+        return Best;
+    }
+
+    private static Map<Long, int[]> Index(Solution s)
+    {
+        //Customers of the new instance by coordinates, in id order where several share a location
+        Map<Long, int[]> Index = new HashMap<>(2 * s.Demand.length);
+        for (int c = 1; c < s.Demand.length; c++) {
+            long Key = Location(s.NodeX[c], s.NodeY[c]);
+            int[] Ids = Index.get(Key);
+            if (Ids == null)
+            {
+                Index.put(Key, new int[] {c});
+            }
+            else
+            {
+                Ids = Arrays.copyOf(Ids, Ids.length + 1);
+                Ids[Ids.length - 1] = c;
+                Index.put(Key, Ids);
+            }
+        }
+        return Index;
+    }
+
+    private static int[] Match(CachedEntry e, Solution s, Map<Long, int[]> Index)
+    {
+        //New id of every cached node, -1 for a customer that is gone. Customers at the same location are paired
+        //in id order among those of equal demand.
+        int[] NewId = new int[e.Demand.length];
+        boolean[] Used = new boolean[s.Demand.length];
+        for (int i = 1; i < NewId.length; i++) {
+            NewId[i] = -1;
+            int[] Ids = Index.get(Location(e.X[i], e.Y[i]));
+            if (Ids == null) continue;
+            for (int c : Ids) {
+                if (!Used[c] && s.Demand[c] == e.Demand[i]) {
+                    Used[c] = true;
+                    NewId[i] = c;
+                    break;
+                }
+            }
+        }
+        return NewId;
+    }
+
+    private static int SetRoute(Solution s, Vehicle v, int[] Route, int[] NewId)
+    {
+        //Cached route in the new numbering, customers that are gone are left out and so are the depot visits
+        //they leave back to back. Returns the customers added.
+        v.Clear();
+        int Customers = 0;
+        for (int Node : Route) {
+            int Id = (Node == 0 || NewId == null) ? Node : NewId[Node];
+            if (Id < 0) continue;
+            if (Id == 0 && v.RouteLength > 0 && v.Route[v.RouteLength - 1] == 0) continue;
+            v.AddNode(Id, s.Demand[Id]);
+            if (Id != 0)
+            {
+                s.Routed[Id] = true;
+                Customers++;
+            }
+        }
+        if (Customers == 0)
+            v.Clear();
+        return Customers;
+    }
+
+    private static double RoutesCost(Solution s, DistanceProvider CostMatrix)
+    {
+        double Cost = 0;
+        for (Vehicle v : s.Vehicles) {
+            for (int k = 0; k + 1 < v.RouteLength; k++) {
+                Cost += CostMatrix.Distance(v.Route[k], v.Route[k + 1]);
+            }
+        }
+        return Cost;
+    }
+
+    private static boolean Same(CachedEntry e, Solution s)
+    {
+        return e.Vehicles == s.Vehicles.length && e.Capacity == s.Vehicles[0].capacity
+                && Arrays.equals(e.X, s.NodeX) && Arrays.equals(e.Y, s.NodeY) && Arrays.equals(e.Demand, s.Demand);
+    }
+
+    static long Fingerprint(int[] X, int[] Y, int[] Demand, int Vehicles, int Capacity)
+    {
+        long h = Mix(X.length);
+        h = Mix(h ^ Vehicles);
+        h = Mix(h ^ Capacity);
+        for (int i = 0; i < X.length; i++) {
+            h = Mix(h ^ Location(X[i], Y[i]));
+            h = Mix(h ^ Demand[i]);
+        }
+        return h;
+    }
+
+    static long Family(int DepotX, int DepotY, int Capacity)
+    {
+        return Mix(Mix(Location(DepotX, DepotY)) ^ Capacity);
+    }
+
+    private static long Location(int X, int Y)
+    {
+        return ((long) X << 32) | (Y & 0xffffffffL);
+    }
+
+    private static long Mix(long z) //SplitMix64 finalizer
+    {
+        z = (z + 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String FileName(long Family, long Fingerprint)
+    {
+        return String.format("%016x-%016x.cache", Family, Fingerprint);
+    }
+
+    private void Write(CachedEntry e) throws IOException
+    {
+        ByteArrayOutputStream Bytes = new ByteArrayOutputStream(64 + 12 * e.X.length + 4 * e.Routes.length);
+        CheckedOutputStream Checked = new CheckedOutputStream(Bytes, new CRC32());
+        DataOutputStream Out = new DataOutputStream(Checked);
+        Out.writeInt(Magic);
+        Out.writeInt(Version);
+        Out.writeInt(e.X.length);
+        Out.writeInt(e.Vehicles);
+        Out.writeInt(e.Capacity);
+        Out.writeDouble(e.Cost);
+        for (int i = 0; i < e.X.length; i++) {
+            Out.writeInt(e.X[i]);
+            Out.writeInt(e.Y[i]);
+            Out.writeInt(e.Demand[i]);
+        }
+        Out.writeInt(e.Routes.length);
+        for (int[] Route : e.Routes) {
+            Out.writeInt(Route.length);
+            for (int Node : Route) Out.writeInt(Node);
+        }
+        Out.flush();
+        Out.writeInt((int) Checked.getChecksum().getValue());
+        Out.flush();
+
+        //Complete files only, like the Tabu checkpoints
+        Path Target = Directory.resolve(FileName(e.Family, e.Fingerprint)).toAbsolutePath();
+        Path Temp = Files.createTempFile(Target.getParent(), Target.getFileName().toString(), ".tmp");
+        try {
+            try (FileOutputStream File = new FileOutputStream(Temp.toFile())) {
+                Bytes.writeTo(File);
+                File.getFD().sync(); //On disk before the move makes it visible
+            }
+            try {
+                Files.move(Temp, Target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException x) {
+                Files.move(Temp, Target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(Temp);
+        }
+    }
+
+    private static CachedEntry Read(Path File)
+    {
+        //null when the file is missing, damaged or not a cache entry: the instance is then solved as a miss
+        try {
+            if (!Files.exists(File)) return null;
+            byte[] Bytes = Files.readAllBytes(File);
+            if (Bytes.length < 4) return null;
+            CRC32 Crc = new CRC32();
+            Crc.update(Bytes, 0, Bytes.length - 4);
+            if ((int) Crc.getValue() != ByteBuffer.wrap(Bytes, Bytes.length - 4, 4).getInt()) return null;
+            DataInputStream In = new DataInputStream(new ByteArrayInputStream(Bytes, 0, Bytes.length - 4));
+
+            if (In.readInt() != Magic || In.readInt() != Version) return null;
+            CachedEntry e = new CachedEntry();
+            int Dimension = In.readInt();
+            e.Vehicles = In.readInt();
+            e.Capacity = In.readInt();
+            e.Cost = In.readDouble();
+            if (Dimension < 1 || e.Vehicles < 1 || 12L * Dimension > Bytes.length) return null;
+            e.X = new int[Dimension];
+            e.Y = new int[Dimension];
+            e.Demand = new int[Dimension];
+            for (int i = 0; i < Dimension; i++) {
+                e.X[i] = In.readInt();
+                e.Y[i] = In.readInt();
+                e.Demand[i] = In.readInt();
+            }
+            int Count = In.readInt();
+            if (Count < 0 || Count > e.Vehicles) return null;
+            e.Routes = new int[Count][];
+            for (int r = 0; r < Count; r++) {
+                int Length = In.readInt();
+                if (Length < 0 || 4L * Length > Bytes.length) return null;
+                e.Routes[r] = new int[Length];
+                for (int k = 0; k < Length; k++) {
+                    int Node = In.readInt();
+                    if (Node < 0 || Node >= Dimension) return null;
+                    e.Routes[r][k] = Node;
+                }
+            }
+            e.Fingerprint = Fingerprint(e.X, e.Y, e.Demand, e.Vehicles, e.Capacity);
+            e.Family = Family(e.X[0], e.Y[0], e.Capacity);
+            return e;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package vrp;
+
+interface SolutionListener
+{
+    //Called on the search thread every time a search finds a new best solution,
+    //a queue works as well: s.Listener = Queue::offer
+    void NewBest(SolutionUpdate Update);
+}
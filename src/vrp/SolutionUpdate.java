@@ -0,0 +1,32 @@
+package vrp;
+
+import java.util.Arrays;
+
+class SolutionUpdate
+{
+    //Copy of the routes at the time of the update, safe to hand to another thread
+
+    public final String Search;  //Greedy, Intra, Inter or Tabu
+    public final int Iteration;
+    public final double Cost;
+    public final int[][] Routes; //Node ids of every used vehicle, depot at both ends
+    public final long Nanos;     //System.nanoTime() of the update
+
+    SolutionUpdate(String Search, int Iteration, double Cost, Vehicle[] Vehicles)
+    {
+        this.Search = Search;
+        this.Iteration = Iteration;
+        this.Cost = Cost;
+        this.Nanos = System.nanoTime();
+
+        int Used = 0;
+        for (Vehicle v : Vehicles) {
+            if (v.RouteLength > 0) Used++;
+        }
+        Routes = new int[Used][];
+        int r = 0;
+        for (Vehicle v : Vehicles) {
+            if (v.RouteLength > 0) Routes[r++] = Arrays.copyOf(v.Route, v.RouteLength);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package vrp;
+
+class SolverCounters
+{
+    //Progress of the running search of one Solution, written by the searching thread once per iteration
+    //and readable from any other thread (a monitor, a status endpoint). Set Solution.Counters to turn it on.
+
+    private volatile String Phase = "";
+    private volatile long PhaseStartNanos;
+    private volatile int Iteration;
+    private volatile int LastImprovement;
+    private volatile double BestCost = Double.NaN;
+    private volatile long Moves, CapacityRejected, TabuRejected; //Since the start of the phase
+
+    //Totals of the Solution when the phase began, only touched by the searching thread
+    private long MovesAtStart, CapacityAtStart, TabuAtStart;
+
+    void Begin(String Phase, Solution Sol)
+    {
+        MovesAtStart = Sol.MovesEvaluated;
+        CapacityAtStart = Sol.CapacityRejected;
+        TabuAtStart = Sol.TabuRejected;
+        Moves = CapacityRejected = TabuRejected = 0;
+        Iteration = LastImprovement = 0;
+        BestCost = Sol.Cost;
+        PhaseStartNanos = System.nanoTime();
+        this.Phase = Phase;
+    }
+
+    void Update(int Iteration, Solution Sol)
+    {
+        Moves = Sol.MovesEvaluated - MovesAtStart;
+        CapacityRejected = Sol.CapacityRejected - CapacityAtStart;
+        TabuRejected = Sol.TabuRejected - TabuAtStart;
+        this.Iteration = Iteration;
+    }
+
+    void Improved(int Iteration, double Cost)
+    {
+        LastImprovement = Iteration;
+        BestCost = Cost;
+    }
+
+    public String Phase()
+    {
+        return Phase;
+    }
+
+    public int Iteration()
+    {
+        return Iteration;
+    }
+
+    public int IterationsSinceBest()
+    {
+        return Iteration - LastImprovement;
+    }
+
+    public double BestCost()
+    {
+        return BestCost;
+    }
+
+    public long MovesEvaluated()
+    {
+        return Moves;
+    }
+
+    public long CapacityRejected()
+    {
+        return CapacityRejected;
+    }
+
+    public long TabuRejected()
+    {
+        return TabuRejected;
+    }
+
+    public double MovesPerSecond() //Over the running phase
+    {
+        long Nanos = System.nanoTime() - PhaseStartNanos;
+        return (Nanos > 0) ? Moves * 1e9 / Nanos : 0;
+    }
+
+    public double TabuHitRatio() //Share of the moves looked at that were Tabu
+    {
+        long Tabu = TabuRejected, Looked = Moves + Tabu;
+        return (Looked > 0) ? (double) Tabu / Looked : 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s it %d (%d since best) best %.1f, %.0f moves/s, %d capacity / %d tabu rejected, tabu ratio %.3f",
+                Phase, Iteration, IterationsSinceBest(), BestCost, MovesPerSecond(), CapacityRejected, TabuRejected, TabuHitRatio());
+    }
+}
@@ -0,0 +1,134 @@
+package vrp;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+final class SolverEvents
+{
+    //Flight Recorder events of the searches: one vrp.Phase per search and one vrp.Improvement per new best.
+    //Events only cost an enabled check unless a recording asks for them, e.g.
+    //java -XX:StartFlightRecording=filename=vrp.jfr -cp solver/target/classes vrp.VRP
+    //The solver is built against the Java 8 API, which has no jdk.jfr, so the event types are defined at run time
+    //through jdk.jfr.EventFactory and used by reflection. On a JVM without JFR every call returns at once.
+
+    private static Object PhaseFactory, ImprovementFactory; //jdk.jfr.EventFactory
+    private static Method NewEvent, Begin, End, Commit, IsEnabled, ShouldCommit, Set;
+
+    static final boolean Available = Define();
+
+    private SolverEvents()
+    {
+    }
+
+    private static boolean Define()
+    {
+        try {
+            Class<?> Factory = Class.forName("jdk.jfr.EventFactory");
+            Class<?> Event = Class.forName("jdk.jfr.Event");
+            Class<?> Element = Class.forName("jdk.jfr.AnnotationElement");
+            Class<?> Descriptor = Class.forName("jdk.jfr.ValueDescriptor");
+            Constructor<?> NewElement = Element.getConstructor(Class.class, Object.class);
+            Constructor<?> NewDescriptor = Descriptor.getConstructor(Class.class, String.class, List.class);
+            Method Create = Factory.getMethod("create", List.class, List.class);
+
+            Object Category = NewElement.newInstance(Annotation("Category"), new String[] {"VRP"});
+            PhaseFactory = Create.invoke(null,
+                    Arrays.asList(NewElement.newInstance(Annotation("Name"), "vrp.Phase"),
+                            NewElement.newInstance(Annotation("Label"), "Search Phase"), Category,
+                            NewElement.newInstance(Annotation("Description"), "One greedy construction or search run")),
+                    Arrays.asList(Field(NewDescriptor, NewElement, String.class, "Phase", "Phase"),
+                            Field(NewDescriptor, NewElement, int.class, "Iterations", "Iterations"),
+                            Field(NewDescriptor, NewElement, long.class, "Moves", "Moves Evaluated"),
+                            Field(NewDescriptor, NewElement, double.class, "StartCost", "Start Cost"),
+                            Field(NewDescriptor, NewElement, double.class, "EndCost", "End Cost")));
+            ImprovementFactory = Create.invoke(null,
+                    Arrays.asList(NewElement.newInstance(Annotation("Name"), "vrp.Improvement"),
+                            NewElement.newInstance(Annotation("Label"), "New Best Solution"), Category),
+                    Arrays.asList(Field(NewDescriptor, NewElement, String.class, "Phase", "Phase"),
+                            Field(NewDescriptor, NewElement, int.class, "Iteration", "Iteration"),
+                            Field(NewDescriptor, NewElement, double.class, "Cost", "Cost")));
+
+            NewEvent = Factory.getMethod("newEvent");
+            Begin = Event.getMethod("begin");
+            End = Event.getMethod("end");
+            Commit = Event.getMethod("commit");
+            IsEnabled = Event.getMethod("isEnabled");
+            ShouldCommit = Event.getMethod("shouldCommit");
+            Set = Event.getMethod("set", int.class, Object.class);
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static Class<?> Annotation(String Name) throws ClassNotFoundException
+    {
+        return Class.forName("jdk.jfr." + Name);
+    }
+
+    private static Object Field(Constructor<?> NewDescriptor, Constructor<?> NewElement, Class<?> Type, String Name,
+                                String Label) throws ReflectiveOperationException
+    {
+        List<Object> Annotations = new ArrayList<>();
+        Annotations.add(NewElement.newInstance(Annotation("Label"), Label));
+        return NewDescriptor.newInstance(Type, Name, Collections.unmodifiableList(Annotations));
+    }
+
+    static Object BeginPhase(String Phase) //Token for EndPhase, null when nobody records phases
+    {
+        if (!Available)
+            return null;
+        try {
+            Object e = NewEvent.invoke(PhaseFactory);
+            if (!(Boolean) IsEnabled.invoke(e))
+                return null;
+            Set.invoke(e, 0, Phase);
+            Begin.invoke(e);
+            return e;
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    static void EndPhase(Object Token, int Iterations, long Moves, double StartCost, double EndCost)
+    {
+        if (Token == null)
+            return;
+        try {
+            End.invoke(Token);
+            if ((Boolean) ShouldCommit.invoke(Token))
+            {
+                Set.invoke(Token, 1, Iterations);
+                Set.invoke(Token, 2, Moves);
+                Set.invoke(Token, 3, StartCost);
+                Set.invoke(Token, 4, EndCost);
+                Commit.invoke(Token);
+            }
+        } catch (ReflectiveOperationException e) {
+            //The event is lost, the search goes on
+        }
+    }
+
+    static void Improvement(String Phase, int Iteration, double Cost)
+    {
+        if (!Available)
+            return;
+        try {
+            Object e = NewEvent.invoke(ImprovementFactory);
+            if ((Boolean) ShouldCommit.invoke(e))
+            {
+                Set.invoke(e, 0, Phase);
+                Set.invoke(e, 1, Iteration);
+                Set.invoke(e, 2, Cost);
+                Commit.invoke(e);
+            }
+        } catch (ReflectiveOperationException e) {
+            //The event is lost, the search goes on
+        }
+    }
+}
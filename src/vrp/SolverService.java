@@ -0,0 +1,434 @@
+package vrp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SolverService
+{
+    //Long running solver behind a local HTTP endpoint, so requests skip the JVM start and run on warm code:
+    //java -cp solver/target/classes vrp.SolverService [-port P] [-workers N] [-queue N]
+    //  POST /solve?budget=<ms>&vehicles=<n>&wait=false   body: a CVRPLIB .vrp instance
+    //       200 and the .sol text once it is solved, with wait=false (or 0) 202 and the job id at once
+    //  GET  /status[?id=<id>]   the service, or the state of a job and its SolverCounters while it runs
+    //  GET  /result?id=<id>     .sol text of a finished job, 202 while it is queued or running
+    //  POST /cancel?id=<id>     a queued job is dropped, a running one ends its Tabu search with the best routes so far
+    //Jobs wait in a bounded queue in front of Workers solver threads. When the queue is full /solve answers 503 with
+    //Retry-After, so callers back off instead of piling up. The budget of a job counts from its admission and ends
+    //the Tabu search (the greedy construction always completes). Solutions and their vehicles are reused by later jobs.
+
+    public int Port = 8750;
+    public int Workers = Runtime.getRuntime().availableProcessors();
+    public int QueueCapacity = 64;
+    public int MaxBodyBytes = 16 << 20;  //Larger instances get 413, a 10000 customer .vrp is about 300 KB
+    public long DefaultBudgetMillis = 1000;
+    public long MaxBudgetMillis = 60000;
+    public int TabuHorizon = 10;
+    public int TabuIterations = 1000000; //Upper bound, the budget normally ends the search first
+    public int CandidateListSize = 20;
+    public long Seed = 151190;
+    public int KeepResults = 1000;       //Finished jobs kept for /status and /result
+    public int WarmUpSolves = 20;        //Small solves run by Start so the first request finds compiled code
+
+    private HttpServer Server;
+    private ThreadPoolExecutor Solvers;
+    private ExecutorService Handlers;
+    private final ConcurrentHashMap<Long, Job> Jobs = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> Finished = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Solution> FreeSolutions = new ConcurrentLinkedQueue<>();
+    private final AtomicLong NextId = new AtomicLong();
+    private final AtomicLong Completed = new AtomicLong(), Rejected = new AtomicLong();
+
+    public static void main(String[] args) throws IOException
+    {
+        SolverService Service = new SolverService();
+        for (int a = 0; a + 1 < args.length; a += 2) {
+            switch (args[a]) {
+                case "-port": Service.Port = Integer.parseInt(args[a + 1]); break;
+                case "-workers": Service.Workers = Integer.parseInt(args[a + 1]); break;
+                case "-queue": Service.QueueCapacity = Integer.parseInt(args[a + 1]); break;
+                default: System.out.println("Unknown option " + args[a]);
+            }
+        }
+        Service.Start();
+        System.out.println("Solver service listening on http://127.0.0.1:" + Service.Port() + "/");
+    }
+
+    public void Start() throws IOException
+    {
+        Solvers = new ThreadPoolExecutor(Workers, Workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(Math.max(1, QueueCapacity)));
+        //Requests waiting for their job hold a thread each, at most Workers + QueueCapacity of them, the rest are short:
+        ///solve checks the queue before it reads the body and stops reading at MaxBodyBytes
+        Handlers = Executors.newCachedThreadPool();
+
+        WarmUp();
+
+        //Small replies would otherwise wait for the delayed ACK of the client, about 40 ms per request
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        Server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), Port), 0);
+        Server.setExecutor(Handlers);
+        Server.createContext("/solve", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange Exchange) throws IOException
+            {
+                Solve(Exchange);
+            }
+        });
+        Server.createContext("/status", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange Exchange) throws IOException
+            {
+                Status(Exchange);
+            }
+        });
+        Server.createContext("/result", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange Exchange) throws IOException
+            {
+                Result(Exchange);
+            }
+        });
+        Server.createContext("/cancel", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange Exchange) throws IOException
+            {
+                Cancel(Exchange);
+            }
+        });
+        Server.start();
+    }
+
+    public int Port() //The bound port, useful with Port = 0
+    {
+        return Server.getAddress().getPort();
+    }
+
+    public void Stop()
+    {
+        Server.stop(0);
+        Solvers.shutdownNow();
+        Handlers.shutdownNow();
+    }
+
+    private void Solve(HttpExchange Exchange) throws IOException
+    {
+        if (!Exchange.getRequestMethod().equals("POST")) {
+            Reply(Exchange, 405, "POST an instance to /solve\n");
+            return;
+        }
+        if (Solvers.getQueue().remainingCapacity() == 0) { //Refused before the body is read, execute checks again
+            QueueFull(Exchange);
+            return;
+        }
+        Map<String, String> Query = Query(Exchange);
+        byte[] Body = Body(Exchange, MaxBodyBytes);
+        if (Body == null) {
+            Reply(Exchange, 413, "The instance is larger than " + MaxBodyBytes + " bytes\n");
+            return;
+        }
+        CvrpInstance Inst;
+        try {
+            Inst = CvrpLib.Load(ByteBuffer.wrap(Body), "request");
+        } catch (IOException | RuntimeException e) {
+            Reply(Exchange, 400, "Cannot read the instance: " + e.getMessage() + "\n");
+            return;
+        }
+
+        long Budget;
+        int Vehicles;
+        try {
+            Budget = Math.min(MaxBudgetMillis, Query.containsKey("budget") ? Long.parseLong(Query.get("budget")) : DefaultBudgetMillis);
+            Vehicles = Query.containsKey("vehicles") ? Integer.parseInt(Query.get("vehicles")) : Inst.FleetSize();
+        } catch (NumberFormatException e) {
+            Reply(Exchange, 400, "budget and vehicles must be whole numbers\n");
+            return;
+        }
+        if (Budget < 0) { //Also keeps Admitted + Budget in nanoseconds from overflowing
+            Reply(Exchange, 400, "budget must not be negative\n");
+            return;
+        }
+        int MaxVehicles = Math.max(Inst.Dimension - 1, Inst.FleetSize()); //More would stay empty, one customer each
+        if (Vehicles < 1 || Vehicles > MaxVehicles) {
+            Reply(Exchange, 400, "vehicles must be between 1 and " + MaxVehicles + "\n");
+            return;
+        }
+        Job J = new Job(NextId.incrementAndGet(), Inst, Vehicles, Budget);
+        Jobs.put(J.Id, J);
+        try {
+            Solvers.execute(J);
+        } catch (RejectedExecutionException e) {
+            Jobs.remove(J.Id);
+            QueueFull(Exchange);
+            return;
+        }
+
+        String Wait = Query.get("wait");
+        if (!"0".equals(Wait) && !"false".equals(Wait))
+        {
+            try {
+                J.Done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Result(Exchange, J);
+        }
+        else
+        {
+            Reply(Exchange, 202, "id " + J.Id + "\n");
+        }
+    }
+
+    private void QueueFull(HttpExchange Exchange) throws IOException
+    {
+        Rejected.incrementAndGet();
+        Exchange.getResponseHeaders().set("Retry-After", "1");
+        Reply(Exchange, 503, "Queue full (" + QueueCapacity + " jobs waiting), retry later\n");
+    }
+
+    private void Status(HttpExchange Exchange) throws IOException
+    {
+        Map<String, String> Query = Query(Exchange);
+        if (!Query.containsKey("id"))
+        {
+            Reply(Exchange, 200, "workers " + Workers + "\nrunning " + Solvers.getActiveCount() + "\nqueued " + Solvers.getQueue().size()
+                    + "\nqueue capacity " + QueueCapacity + "\ncompleted " + Completed.get() + "\nrejected " + Rejected.get() + "\n");
+            return;
+        }
+        Job J = Find(Exchange, Query);
+        if (J == null) return;
+        StringBuilder Out = new StringBuilder("id ").append(J.Id).append("\nstate ").append(J.State).append('\n');
+        if (J.State.equals("running")) Out.append("progress ").append(J.Counters).append('\n');
+        if (J.Result != null) Out.append("cost ").append(J.Cost).append('\n');
+        if (J.Error != null) Out.append("error ").append(J.Error).append('\n');
+        Out.append("queued ms ").append(J.QueuedMillis).append("\nsolve ms ").append(J.SolveMillis).append('\n');
+        Reply(Exchange, 200, Out.toString());
+    }
+
+    private void Result(HttpExchange Exchange) throws IOException
+    {
+        Job J = Find(Exchange, Query(Exchange));
+        if (J != null) Result(Exchange, J);
+    }
+
+    private void Result(HttpExchange Exchange, Job J) throws IOException
+    {
+        if (J.Result != null)
+            Reply(Exchange, 200, J.Result);
+        else if (J.Error != null)
+            Reply(Exchange, 422, J.Error + "\n");
+        else if (J.State.equals("cancelled"))
+            Reply(Exchange, 410, "Cancelled before it started\n");
+        else
+            Reply(Exchange, 202, J.State + "\n");
+    }
+
+    private void Cancel(HttpExchange Exchange) throws IOException
+    {
+        if (!Exchange.getRequestMethod().equals("POST")) {
+            Reply(Exchange, 405, "POST to /cancel\n");
+            return;
+        }
+        Job J = Find(Exchange, Query(Exchange));
+        if (J == null) return;
+        J.Stop.Cancel();
+        if (Solvers.remove(J)) //Still queued
+            J.Finish("cancelled");
+        Reply(Exchange, 200, "id " + J.Id + "\nstate " + J.State + "\n");
+    }
+
+    private Job Find(HttpExchange Exchange, Map<String, String> Query) throws IOException
+    {
+        Job J = null;
+        try {
+            J = Jobs.get(Long.parseLong(Query.get("id")));
+        } catch (NumberFormatException e) {
+            //Reported as unknown below
+        }
+        if (J == null) Reply(Exchange, 404, "Unknown job\n");
+        return J;
+    }
+
+    private final class Job implements Runnable
+    {
+        final long Id;
+        final CvrpInstance Inst;
+        final int Vehicles;
+        final long Admitted = System.nanoTime();
+        final StopCondition Stop;
+        final SolverCounters Counters = new SolverCounters();
+        final CountDownLatch Done = new CountDownLatch(1);
+
+        volatile String State = "queued";
+        volatile String Result, Error;
+        volatile double Cost;
+        volatile long QueuedMillis, SolveMillis;
+
+        Job(long Id, CvrpInstance Inst, int Vehicles, long BudgetMillis)
+        {
+            this.Id = Id;
+            this.Inst = Inst;
+            this.Vehicles = Vehicles;
+            this.Stop = StopCondition.Iterations(TabuIterations).WithDeadline(Admitted + BudgetMillis * 1000000L);
+        }
+
+        @Override
+        public void run()
+        {
+            long Start = System.nanoTime();
+            QueuedMillis = (Start - Admitted) / 1000000;
+            if (Stop.Cancelled) {
+                Finish("cancelled");
+                return;
+            }
+            State = "running";
+            Solution s = null;
+            try {
+                s = TakeSolution(Inst.Dimension - 1, Vehicles, Inst.Capacity);
+                s.Counters = Counters;
+                Solve(s, Inst, Stop);
+                Result = CvrpLib.SolutionText(s, Inst);
+                Cost = s.Cost;
+                SolveMillis = (System.nanoTime() - Start) / 1000000;
+                Finish(Stop.Cancelled ? "cancelled" : "done");
+            } catch (RuntimeException e) { //Demand does not fit the vehicles, or a bad instance
+                Error = e.getMessage();
+                SolveMillis = (System.nanoTime() - Start) / 1000000;
+                Finish("failed");
+            } finally {
+                if (Done.getCount() > 0) { //An Error such as OutOfMemoryError, still release the waiting request
+                    Error = "Solver error";
+                    SolveMillis = (System.nanoTime() - Start) / 1000000;
+                    Finish("failed");
+                }
+                if (s != null) ReturnSolution(s);
+            }
+        }
+
+        void Finish(String Final)
+        {
+            State = Final;
+            Completed.incrementAndGet();
+            Finished.add(Id);
+            while (Finished.size() > KeepResults) {
+                Long Old = Finished.poll();
+                if (Old != null) Jobs.remove(Old);
+            }
+            Done.countDown();
+        }
+    }
+
+    private void Solve(Solution s, CvrpInstance Inst, StopCondition Stop)
+    {
+        Node[] Nodes = Inst.ToNodes();
+        DistanceProvider Distances = Inst.Distances();
+        s.GreedySolution(Nodes, Distances);
+        s.TabuSearch(TabuHorizon, Distances, Stop);
+    }
+
+    private Solution TakeSolution(int Customers, int Vehicles, int Capacity)
+    {
+        Solution s = FreeSolutions.poll();
+        if (s == null)
+            s = new Solution(Customers, Vehicles, Capacity);
+        else
+            s.Reset(Customers, Vehicles, Capacity);
+        s.CandidateListSize = CandidateListSize;
+        s.SpatialGreedy = true; //EUC_2D distances
+        s.WriteTraces = false;
+        s.TabuRan.setSeed(Seed); //Same answer for the same request
+        return s;
+    }
+
+    private void ReturnSolution(Solution s)
+    {
+        if (FreeSolutions.size() < Workers)
+            FreeSolutions.offer(s);
+    }
+
+    private void WarmUp()
+    {
+        //Random 100 customer instances, solved like requests, then the Solutions go to the pool
+        Random Ran = new Random(Seed);
+        for (int w = 0; w < WarmUpSolves; w++) {
+            CvrpInstance Inst = new CvrpInstance();
+            Inst.Name = "warm-up";
+            Inst.Dimension = 101;
+            Inst.Capacity = 50;
+            Inst.DepotFileId = 1;
+            Inst.NodeX = new int[Inst.Dimension];
+            Inst.NodeY = new int[Inst.Dimension];
+            Inst.Demand = new int[Inst.Dimension];
+            Inst.NodeX[0] = Inst.NodeY[0] = 50;
+            for (int i = 1; i < Inst.Dimension; i++) {
+                Inst.NodeX[i] = Ran.nextInt(100);
+                Inst.NodeY[i] = Ran.nextInt(100);
+                Inst.Demand[i] = 4 + Ran.nextInt(7);
+            }
+            Solution s = TakeSolution(Inst.Dimension - 1, Inst.FleetSize(), Inst.Capacity);
+            Solve(s, Inst, StopCondition.Iterations(200));
+            ReturnSolution(s);
+        }
+    }
+
+    private static Map<String, String> Query(HttpExchange Exchange)
+    {
+        Map<String, String> Values = new HashMap<>();
+        String Raw = Exchange.getRequestURI().getRawQuery();
+        if (Raw == null) return Values;
+        for (String Pair : Raw.split("&")) {
+            int Eq = Pair.indexOf('=');
+            if (Eq > 0) Values.put(Pair.substring(0, Eq), Pair.substring(Eq + 1));
+            else if (!Pair.isEmpty()) Values.put(Pair, "1");
+        }
+        return Values;
+    }
+
+    private static byte[] Body(HttpExchange Exchange, int Limit) throws IOException
+    {
+        //null when the body is longer than Limit, by its Content-Length or once that many bytes have arrived
+        String Length = Exchange.getRequestHeaders().getFirst("Content-Length");
+        try {
+            if (Length != null && Long.parseLong(Length.trim()) > Limit)
+                return null;
+        } catch (NumberFormatException e) {
+            //Counted while reading below
+        }
+        ByteArrayOutputStream Out = new ByteArrayOutputStream(1 << 14);
+        byte[] Buffer = new byte[1 << 14];
+        try (InputStream In = Exchange.getRequestBody()) {
+            int n;
+            while ((n = In.read(Buffer)) > 0) {
+                if (Out.size() + n > Limit)
+                    return null;
+                Out.write(Buffer, 0, n);
+            }
+        }
+        return Out.toByteArray();
+    }
+
+    private static void Reply(HttpExchange Exchange, int Code, String Text) throws IOException
+    {
+        byte[] Bytes = Text.getBytes(StandardCharsets.UTF_8);
+        Exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        Exchange.sendResponseHeaders(Code, Bytes.length);
+        try (OutputStream Out = Exchange.getResponseBody()) {
+            Out.write(Bytes);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package vrp;
+
+class StopCondition
+{
+    //Limits of one search. It stops as soon as any limit that is set is reached (0 = not set),
+    //so a deadline, an iteration cap and a no-improvement streak can be combined freely.
+
+    public int MaxIterations;
+    public int MaxNoImprovement; //Iterations in a row without a new best solution
+    public long TimeLimitMillis; //Measured from the start of the search
+    public long DeadlineNanos;   //Absolute System.nanoTime(), lets consecutive searches share one budget
+    public volatile boolean Cancelled; //Set from any thread by Cancel, the search stops after its current iteration
+    private StopCondition Outer;       //Condition this one was derived from by StartingAt, its Cancel applies here too
+
+    public static StopCondition Iterations(int MaxIterations)
+    {
+        return new StopCondition().WithIterations(MaxIterations);
+    }
+
+    public static StopCondition NoImprovement(int MaxNoImprovement)
+    {
+        return new StopCondition().WithNoImprovement(MaxNoImprovement);
+    }
+
+    public static StopCondition TimeLimit(long Millis)
+    {
+        return new StopCondition().WithTimeLimit(Millis);
+    }
+
+    public static StopCondition Deadline(long Nanos)
+    {
+        return new StopCondition().WithDeadline(Nanos);
+    }
+
+    public StopCondition WithIterations(int MaxIterations)
+    {
+        this.MaxIterations = MaxIterations;
+        return this;
+    }
+
+    public StopCondition WithNoImprovement(int MaxNoImprovement)
+    {
+        this.MaxNoImprovement = MaxNoImprovement;
+        return this;
+    }
+
+    public StopCondition WithTimeLimit(long Millis)
+    {
+        this.TimeLimitMillis = Millis;
+        return this;
+    }
+
+    public StopCondition WithDeadline(long Nanos)
+    {
+        this.DeadlineNanos = Nanos;
+        return this;
+    }
+
+    public StopCondition StartingAt(long StartNanos)
+    {
+        //The same limits with the time limit turned into a deadline from StartNanos, for searches that share one
+        //wall-clock budget but may start later (queued behind others)
+        if (TimeLimitMillis <= 0)
+            return this;
+        long Deadline = StartNanos + TimeLimitMillis * 1000000L;
+        if (DeadlineNanos != 0 && DeadlineNanos - Deadline < 0)
+            Deadline = DeadlineNanos;
+        StopCondition Shared = new StopCondition().WithIterations(MaxIterations).WithNoImprovement(MaxNoImprovement)
+                .WithDeadline(Deadline);
+        Shared.Outer = this;
+        return Shared;
+    }
+
+    public void Cancel()
+    {
+        Cancelled = true;
+    }
+
+    public boolean Reached(int Iteration, int NoImprovement, long StartNanos)
+    {
+        if (Cancelled || (Outer != null && Outer.Cancelled))
+            return true;
+        if (MaxIterations > 0 && Iteration >= MaxIterations)
+            return true;
+        if (MaxNoImprovement > 0 && NoImprovement >= MaxNoImprovement)
+            return true;
+        if (TimeLimitMillis > 0 || DeadlineNanos != 0)
+        {
+            long Now = System.nanoTime();
+            if (TimeLimitMillis > 0 && Now - StartNanos >= TimeLimitMillis * 1000000L)
+                return true;
+            if (DeadlineNanos != 0 && Now - DeadlineNanos >= 0)
+                return true;
+        }
+        return false;
+    }
+}
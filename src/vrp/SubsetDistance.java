@@ -0,0 +1,26 @@
+package vrp;
+
+class SubsetDistance extends DistanceProvider
+{
+    //Costs between some nodes of a larger provider, node i here is node Ids[i] there (Ids[0] is the depot)
+    private final DistanceProvider Source;
+    private final int[] Ids;
+
+    SubsetDistance(DistanceProvider Source, int[] Ids)
+    {
+        this.Source = Source;
+        this.Ids = Ids;
+    }
+
+    @Override
+    public double Distance(int from, int to)
+    {
+        return Source.Distance(Ids[from], Ids[to]);
+    }
+
+    @Override
+    public int Dimension()
+    {
+        return Ids.length;
+    }
+}
@@ -0,0 +1,334 @@
+package vrp;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+class TabuCheckpoint
+{
+    //State of a running Tabu search saved every EveryIterations iterations and/or EveryMillis milliseconds: routes and
+    //loads, the journal back to the best solution, the live Tabu arcs, the tenure Random and the iteration counters.
+    //The search thread only encodes the state into a byte array, a background writer puts it into <FileName>.tmp and
+    //moves that over FileName, so the file is always a complete checkpoint. A checkpoint due while the last one is
+    //still being written is skipped. Resume loads the file and continues the search exactly as it would have gone on.
+    //
+    //Layout (big endian): magic, version, customers, vehicles, capacity, dimension, horizon, random delay,
+    //candidate list size, operators, iteration, last improvement, cost, best cost, moves evaluated, capacity rejected, tabu rejected,
+    //per vehicle (length, load, nodes), journal (length, entries) or, when the search keeps its best routes as a
+    //snapshot (length -2), per vehicle the best route (length, load, nodes), Tabu arcs (count, from/to/expiry),
+    //Random (length, serialized bytes), CRC32 of everything before it.
+
+    public static final int Magic = 0x56525054; //"VRPT"
+    public static final int Version = 1;
+
+    public final String FileName;
+    public int EveryIterations = 1000; //0 = not by iterations
+    public long EveryMillis = 0;       //0 = not by time
+
+    public volatile long Written;      //Checkpoints on disk
+    public volatile long Skipped;      //Checkpoints dropped because the writer was still busy
+    public volatile IOException LastError;
+
+    //One writer for all checkpoints, like the cost traces its thread is not a daemon so a pending write is finished
+    private static final ThreadPoolExecutor Background = new ThreadPoolExecutor(1, 1, 100, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread t = new Thread(r, "tabu-checkpoint-writer");
+                    t.setDaemon(false);
+                    return t;
+                }
+            });
+
+    static {
+        Background.allowCoreThreadTimeOut(true);
+    }
+
+    private final AtomicBoolean Writing = new AtomicBoolean();
+    private int LastIteration;
+    private long LastNanos = System.nanoTime();
+
+    TabuCheckpoint(String FileName)
+    {
+        this.FileName = FileName;
+    }
+
+    void Iteration(Solution s) //Called by the search after every iteration
+    {
+        boolean Due = EveryIterations > 0 && s.TabuIteration - LastIteration >= EveryIterations;
+        if (!Due && EveryMillis > 0)
+            Due = System.nanoTime() - LastNanos >= EveryMillis * 1000000L;
+        if (Due)
+            Save(s);
+    }
+
+    public void Save(Solution s) //Encodes the state now, writes it in the background
+    {
+        LastIteration = s.TabuIteration;
+        LastNanos = System.nanoTime();
+        if (!Writing.compareAndSet(false, true))
+        {
+            Skipped++;
+            return;
+        }
+        final byte[] State;
+        try {
+            State = Encode(s);
+        } catch (IOException e) {
+            LastError = e;
+            Writing.set(false);
+            return;
+        }
+        Background.execute(new Runnable() {
+            @Override
+            public void run()
+            {
+                try {
+                    Write(State);
+                    Written++;
+                } catch (IOException e) {
+                    LastError = e;
+                } finally {
+                    Writing.set(false);
+                }
+            }
+        });
+    }
+
+    public static void AwaitWritten() throws InterruptedException //Every checkpoint saved so far is on disk
+    {
+        final CountDownLatch Done = new CountDownLatch(1);
+        Background.execute(new Runnable() {
+            @Override
+            public void run()
+            {
+                Done.countDown();
+            }
+        });
+        Done.await();
+    }
+
+    private void Write(byte[] State) throws IOException
+    {
+        Path Target = Paths.get(FileName).toAbsolutePath();
+        Path Temp = Target.resolveSibling(Target.getFileName() + ".tmp");
+        try (FileOutputStream Out = new FileOutputStream(Temp.toFile())) {
+            Out.write(State);
+            Out.getFD().sync();
+        }
+        try {
+            Files.move(Temp, Target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(Temp, Target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static byte[] Encode(Solution s) throws IOException
+    {
+        ByteArrayOutputStream Bytes = new ByteArrayOutputStream(64 + 4 * (s.NoOfCustomers + 4 * s.NoOfVehicles));
+        CheckedOutputStream Checked = new CheckedOutputStream(Bytes, new CRC32());
+        DataOutputStream Out = new DataOutputStream(Checked);
+
+        Out.writeInt(Magic);
+        Out.writeInt(Version);
+        Out.writeInt(s.NoOfCustomers);
+        Out.writeInt(s.NoOfVehicles);
+        Out.writeInt(s.Vehicles[0].capacity);
+        Out.writeInt(s.Demand.length);
+        Out.writeInt(s.TabuHorizon);
+        Out.writeInt(s.TabuRandomDelay);
+        Out.writeInt(s.CandidateListSize);
+        Out.writeInt(s.Operators);
+        Out.writeInt(s.TabuIteration);
+        Out.writeInt(s.TabuLastImprovement);
+        Out.writeDouble(s.Cost);
+        Out.writeDouble(s.BestSolutionCost);
+        Out.writeLong(s.MovesEvaluated);
+        Out.writeLong(s.CapacityRejected);
+        Out.writeLong(s.TabuRejected);
+
+        for (Vehicle v : s.Vehicles) {
+            Out.writeInt(v.RouteLength);
+            Out.writeInt(v.load);
+            for (int k = 0; k < v.RouteLength; k++) {
+                Out.writeInt(v.Route[k]);
+            }
+        }
+
+        int Journal = Math.max(0, s.JournalLength);
+        Out.writeInt(s.JournalLength);
+        for (int e = 0; e < Journal; e++) {
+            Out.writeInt(s.Journal[e]);
+        }
+        if (s.JournalLength == -2) //The journal is capped, so either part is at most the size of the routes
+        {
+            for (int v = 0; v < s.Vehicles.length; v++) {
+                Out.writeInt(s.BestRouteLengths[v]);
+                Out.writeInt(s.BestLoads[v]);
+                for (int k = 0; k < s.BestRouteLengths[v]; k++) {
+                    Out.writeInt(s.BestRoutes[v][k]);
+                }
+            }
+        }
+
+        int[] Arcs = s.Tabu.LiveArcs();
+        Out.writeInt(Arcs.length / 3);
+        for (int a : Arcs) {
+            Out.writeInt(a);
+        }
+
+        ByteArrayOutputStream RandomBytes = new ByteArrayOutputStream(128);
+        try (ObjectOutputStream o = new ObjectOutputStream(RandomBytes)) {
+            o.writeObject(s.TabuRan); //Random keeps its seed private, serializing it is the only exact copy
+        }
+        Out.writeInt(RandomBytes.size());
+        RandomBytes.writeTo(Out);
+
+        Out.flush();
+        Out.writeInt((int) Checked.getChecksum().getValue());
+        Out.flush();
+        return Bytes.toByteArray();
+    }
+
+    public static Solution Load(String FileName, Node[] Nodes) throws IOException
+    {
+        //A Solution in the state of the checkpoint, ContinueTabuSearch goes on from it
+        byte[] Bytes = Files.readAllBytes(Paths.get(FileName));
+        if (Bytes.length < 4)
+            throw new IOException(FileName + " is not a Tabu checkpoint");
+        CRC32 Crc = new CRC32();
+        Crc.update(Bytes, 0, Bytes.length - 4);
+        if ((int) Crc.getValue() != ByteBuffer.wrap(Bytes, Bytes.length - 4, 4).getInt())
+            throw new IOException(FileName + " is not a complete Tabu checkpoint (checksum mismatch)");
+        DataInputStream In = new DataInputStream(new ByteArrayInputStream(Bytes, 0, Bytes.length - 4));
+
+        if (In.readInt() != Magic)
+            throw new IOException(FileName + " is not a Tabu checkpoint");
+        int FileVersion = In.readInt();
+        if (FileVersion != Version)
+            throw new IOException(FileName + ": unsupported checkpoint version " + FileVersion);
+        int NoOfCustomers = In.readInt();
+        int NoOfVehicles = In.readInt();
+        int Capacity = In.readInt();
+        int Dimension = In.readInt();
+        if (Dimension != Nodes.length)
+            throw new IOException(FileName + ": checkpoint of " + Dimension + " nodes, the instance has " + Nodes.length);
+
+        Solution s = new Solution(NoOfCustomers, NoOfVehicles, Capacity);
+        s.WriteTraces = false;
+        s.SetNodes(Nodes);
+        s.TabuHorizon = In.readInt();
+        s.TabuRandomDelay = In.readInt();
+        s.CandidateListSize = In.readInt();
+        s.Operators = In.readInt();
+        s.TabuIteration = In.readInt();
+        s.TabuLastImprovement = In.readInt();
+        s.Cost = In.readDouble();
+        s.BestSolutionCost = In.readDouble();
+        s.MovesEvaluated = In.readLong();
+        s.CapacityRejected = In.readLong();
+        s.TabuRejected = In.readLong();
+
+        for (Vehicle v : s.Vehicles) {
+            int Length = In.readInt();
+            int Load = In.readInt();
+            v.Clear();
+            for (int k = 0; k < Length; k++) {
+                int Id = In.readInt();
+                if (Id < 0 || Id >= Dimension)
+                    throw new IOException(FileName + ": node " + Id + " out of range");
+                v.AddNode(Id, s.Demand[Id]);
+                if (Id != 0) s.Routed[Id] = true;
+            }
+            if (v.load != Load)
+                throw new IOException(FileName + ": route load " + Load + " does not match the instance demands");
+        }
+
+        s.JournalLength = In.readInt();
+        if (4L * s.JournalLength > Bytes.length) //Checked before the journal array is allocated
+            throw new IOException(FileName + ": journal length " + s.JournalLength + " larger than the file");
+        int Journal = Math.max(0, s.JournalLength);
+        s.Journal = new int[Math.max(64, Journal)];
+        for (int e = 0; e < Journal; e++) {
+            s.Journal[e] = In.readInt();
+        }
+        if (s.JournalLength == -2)
+        {
+            s.BestRoutes = new int[NoOfVehicles][];
+            s.BestRouteLengths = new int[NoOfVehicles];
+            s.BestLoads = new int[NoOfVehicles];
+            for (int v = 0; v < NoOfVehicles; v++) {
+                int Length = In.readInt();
+                if (Length < 0 || 4L * Length > Bytes.length)
+                    throw new IOException(FileName + ": best route of " + Length + " nodes");
+                s.BestRouteLengths[v] = Length;
+                s.BestLoads[v] = In.readInt();
+                s.BestRoutes[v] = new int[Math.max(16, Length)];
+                for (int k = 0; k < Length; k++) {
+                    int Id = In.readInt();
+                    if (Id < 0 || Id >= Dimension)
+                        throw new IOException(FileName + ": node " + Id + " out of range");
+                    s.BestRoutes[v][k] = Id;
+                }
+            }
+        }
+        else if (s.JournalLength < -1)
+            throw new IOException(FileName + ": journal length " + s.JournalLength);
+
+        s.Tabu = TabuMemory.Create(Dimension);
+        s.Tabu.Iteration = s.TabuIteration;
+        int Arcs = In.readInt();
+        if (Arcs < 0 || 12L * Arcs > Bytes.length)
+            throw new IOException(FileName + ": " + Arcs + " tabu arcs");
+        for (int a = 0; a < Arcs; a++) {
+            int From = In.readInt(), To = In.readInt(), Expiry = In.readInt();
+            if (From < 0 || From >= Dimension || To < 0 || To >= Dimension)
+                throw new IOException(FileName + ": tabu arc " + From + "-" + To + " out of range");
+            s.Tabu.SetExpiry(From, To, Expiry);
+        }
+
+        int RandomLength = In.readInt();
+        if (RandomLength < 0 || RandomLength > Bytes.length)
+            throw new IOException(FileName + ": Random state of " + RandomLength + " bytes");
+        byte[] RandomBytes = new byte[RandomLength];
+        In.readFully(RandomBytes);
+        try (ObjectInputStream o = new ObjectInputStream(new ByteArrayInputStream(RandomBytes)) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass Desc) throws IOException, ClassNotFoundException
+            {
+                if (!Desc.getName().equals(Random.class.getName())) //Nothing else is ever deserialized from a file
+                    throw new InvalidClassException(Desc.getName(), "not allowed in a Tabu checkpoint");
+                return super.resolveClass(Desc);
+            }
+        }) {
+            s.TabuRan = (Random) o.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException(FileName + ": unreadable Random state", e);
+        }
+
+        return s;
+    }
+
+    public static Solution Resume(String FileName, Node[] Nodes, DistanceProvider CostMatrix, StopCondition Stop) throws IOException
+    {
+        //Continues the checkpointed search until Stop (iterations counted from its start) and returns its best
+        //solution. The resumed search keeps checkpointing into the same file.
+        Solution s = Load(FileName, Nodes);
+        s.Checkpoint = new TabuCheckpoint(FileName);
+        s.Checkpoint.LastIteration = s.TabuIteration;
+
+        Object Phase = s.BeginPhase("Tabu");
+        long MovesAtStart = s.MovesEvaluated;
+        double StartCost = s.Cost;
+        s.ContinueTabuSearch(s.TabuHorizon, CostMatrix, Stop);
+        s.FinishTabuSearch(CostMatrix);
+        s.EndPhase(Phase, s.TabuIteration, MovesAtStart, StartCost);
+        return s;
+    }
+}
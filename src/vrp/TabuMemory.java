@@ -0,0 +1,182 @@
+package vrp;
+
+import java.util.Arrays;
+
+abstract class TabuMemory
+{
+    //An arc (from,to) stays tabu up to and including its expiry iteration,
+    //so checking a move is a compare and nothing has to be aged between iterations.
+
+    public static int DenseLimit = 2048; //Largest dimension that gets a dense n x n table
+
+    public int Iteration; //Current search iteration
+
+    public static TabuMemory Create(int Dimension)
+    {
+        if (Dimension <= DenseLimit)
+            return new DenseTabuMemory(Dimension);
+        else
+            return new SparseTabuMemory(Dimension);
+    }
+
+    public abstract int Expiry(int from, int to); //0 if the arc was never made tabu
+
+    public abstract void SetExpiry(int from, int to, int expiry);
+
+    public abstract int[] LiveArcs(); //from, to, expiry of every arc still tabu at Iteration, used by checkpoints
+
+    public boolean IsTabu(int from, int to)
+    {
+        return Expiry(from, to) >= Iteration;
+    }
+
+    public void MakeTabu(int from, int to, int tenure) //Tabu for the next tenure iterations
+    {
+        SetExpiry(from, to, Iteration + tenure);
+    }
+}
+
+class DenseTabuMemory extends TabuMemory
+{
+    private final int Dimension;
+    private final int[] ExpiryTable;
+
+    DenseTabuMemory(int Dimension)
+    {
+        this.Dimension = Dimension;
+        this.ExpiryTable = new int[Dimension * Dimension];
+    }
+
+    public int Expiry(int from, int to)
+    {
+        return ExpiryTable[from * Dimension + to];
+    }
+
+    public void SetExpiry(int from, int to, int expiry)
+    {
+        ExpiryTable[from * Dimension + to] = expiry;
+    }
+
+    public int[] LiveArcs()
+    {
+        int Live = 0, Limit = Math.max(1, Iteration); //0 = never tabu
+        for (int e : ExpiryTable) {
+            if (e >= Limit) Live++;
+        }
+        int[] Arcs = new int[3 * Live];
+        int k = 0;
+        for (int a = 0; a < ExpiryTable.length; a++) {
+            if (ExpiryTable[a] >= Limit)
+            {
+                Arcs[k++] = a / Dimension;
+                Arcs[k++] = a % Dimension;
+                Arcs[k++] = ExpiryTable[a];
+            }
+        }
+        return Arcs;
+    }
+}
+
+class SparseTabuMemory extends TabuMemory
+{
+    //Open addressing hash of arc -> expiry. Only a few arcs are tabu at any time,
+    //expired ones are dropped whenever the table has to be rebuilt.
+
+    private static final long EMPTY = -1;
+
+    private final long Dimension;
+    private long[] Keys;
+    private int[] Values;
+    private int Size;
+
+    SparseTabuMemory(int Dimension)
+    {
+        this.Dimension = Dimension;
+        Allocate(64);
+    }
+
+    private void Allocate(int capacity)
+    {
+        Keys = new long[capacity];
+        Values = new int[capacity];
+        Arrays.fill(Keys, EMPTY);
+        Size = 0;
+    }
+
+    private int Slot(long key)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        int mask = Keys.length - 1;
+        int slot = (int) (h >>> 32) & mask;
+        while (Keys[slot] != EMPTY && Keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    public int Expiry(int from, int to)
+    {
+        int slot = Slot(from * Dimension + to);
+        return (Keys[slot] == EMPTY) ? 0 : Values[slot];
+    }
+
+    public void SetExpiry(int from, int to, int expiry)
+    {
+        long key = from * Dimension + to;
+        int slot = Slot(key);
+        if (Keys[slot] == EMPTY)
+        {
+            if (2 * (Size + 1) > Keys.length)
+            {
+                Rebuild();
+                slot = Slot(key);
+            }
+            Keys[slot] = key;
+            Size++;
+        }
+        Values[slot] = expiry;
+    }
+
+    public int[] LiveArcs()
+    {
+        int Live = 0;
+        for (int k = 0; k < Keys.length; k++) {
+            if (Keys[k] != EMPTY && Values[k] >= Iteration) Live++;
+        }
+        int[] Arcs = new int[3 * Live];
+        int a = 0;
+        for (int k = 0; k < Keys.length; k++) {
+            if (Keys[k] != EMPTY && Values[k] >= Iteration)
+            {
+                Arcs[a++] = (int) (Keys[k] / Dimension);
+                Arcs[a++] = (int) (Keys[k] % Dimension);
+                Arcs[a++] = Values[k];
+            }
+        }
+        return Arcs;
+    }
+
+    private void Rebuild()
+    {
+        long[] OldKeys = Keys;
+        int[] OldValues = Values;
+
+        int Live = 0;
+        for (int k = 0; k < OldKeys.length; k++) {
+            if (OldKeys[k] != EMPTY && OldValues[k] >= Iteration) Live++;
+        }
+        int capacity = OldKeys.length;
+        while (4 * (Live + 1) > capacity) capacity *= 2; //Keep the table at most a quarter full after rebuilding
+
+        Allocate(capacity);
+        for (int k = 0; k < OldKeys.length; k++) {
+            if (OldKeys[k] != EMPTY && OldValues[k] >= Iteration)
+            {
+                int slot = Slot(OldKeys[k]);
+                Keys[slot] = OldKeys[k];
+                Values[slot] = OldValues[k];
+                Size++;
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package vrp;
+
+class TriangularDistance extends DistanceProvider
+{
+    //Symmetric costs packed below the diagonal as floats (2 n^2 bytes). Rounded distances stay exact
+    //up to 2^24, the index is an int so the dimension is limited to 65536.
+    private final int Dimension;
+    private final float[] Packed;
+
+    TriangularDistance(DistanceProvider Source)
+    {
+        Origin = Source;
+        Dimension = Source.Dimension();
+        if ((long) Dimension * (Dimension - 1) / 2 > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Dimension " + Dimension + " is too large for a packed matrix");
+
+        Packed = new float[(int) ((long) Dimension * (Dimension - 1) / 2)];
+        int p = 0;
+        for (int i = 1; i < Dimension; i++) {
+            for (int j = 0; j < i; j++) {
+                Packed[p++] = (float) Source.Distance(i, j);
+            }
+        }
+    }
+
+    @Override
+    public double Distance(int from, int to)
+    {
+        if (from == to) return 0;
+        if (from < to) { int t = from; from = to; to = t; }
+        return Packed[(from * (from - 1) >>> 1) + to];
+    }
+
+    @Override
+    public int Dimension()
+    {
+        return Dimension;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Created by Nikolaos Michail
+ */
+
+package vrp;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.*;
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class  VRP{
+
+    public static void main(String[] args) {
+
+        Random ran = new Random(151190);
+
+        //Problem Parameters
+        int NoOfCustomers = 30;
+        int NoOfVehicles = 10;
+        int VehicleCap = 50;
+
+        //Depot Coordinates
+        int Depot_x = 50;
+        int Depot_y = 50;
+
+        //Tabu Parameter
+        int TABU_Horizon = 10;
+
+        //Granular Neighborhood Parameter (0 = try every insertion position)
+        int CandidateListSize = 0;
+
+        //Threads used to evaluate the neighborhood (1 = sequential)
+        int Threads = 1;
+
+        //Portfolio Parameter: independent greedy + Tabu solves run in parallel, the best one is kept (1 = off)
+        int PortfolioStarts = Runtime.getRuntime().availableProcessors();
+
+        //Initialise
+        Node[] Nodes;
+        CvrpInstance Instance = null;
+
+        if (args.length > 0) //Solve a CVRPLIB instance: VRP <file.vrp> [vehicles]
+        {
+            try {
+                Instance = CvrpLib.Load(Paths.get(args[0]));
+            } catch (IOException e) {
+                System.out.println("Cannot read " + args[0] + ": " + e.getMessage());
+                return;
+            }
+            NoOfCustomers = Instance.Dimension - 1;
+            VehicleCap = Instance.Capacity;
+            NoOfVehicles = (args.length > 1) ? Integer.parseInt(args[1]) : Instance.FleetSize();
+            Nodes = Instance.ToNodes();
+        }
+        else
+        {
+            //Create Random Customers
+            Nodes = new Node[NoOfCustomers + 1];
+            Node depot = new Node(Depot_x, Depot_y);
+
+            Nodes[0] = depot;
+            for (int i = 1; i <= NoOfCustomers; i++) {
+                Nodes[i] = new Node(i, //Id ) is reserved for depot
+                        ran.nextInt(100), //Random Cordinates
+                        ran.nextInt(100),
+                        4 + ran.nextInt(7)  //Random Demand
+                );
+            }
+        }
+
+        //Small instances keep the full matrix, large ones get a packed or on-demand provider
+        DistanceProvider Distances;
+        if (Instance != null)
+        {
+            Distances = Instance.Distances();
+        }
+        else
+        {
+            double[][] distanceMatrix = new double[NoOfCustomers + 1][NoOfCustomers + 1];
+            double Delta_x, Delta_y;
+            for (int i = 0; i <= NoOfCustomers; i++) {
+                for (int j = i + 1; j <= NoOfCustomers; j++) //The table is summetric to the first diagonal
+                {                                      //Use this to compute distances in O(n/2)
+
+                    Delta_x = (Nodes[i].Node_X - Nodes[j].Node_X);
+                    Delta_y = (Nodes[i].Node_Y - Nodes[j].Node_Y);
+
+                    double distance = Math.sqrt((Delta_x * Delta_x) + (Delta_y * Delta_y));
+
+                    distance = Math.round(distance);                //Distance is Casted in Integer
+                    //distance = Math.round(distance*100.0)/100.0; //Distance in double
+
+                    distanceMatrix[i][j] = distance;
+                    distanceMatrix[j][i] = distance;
+                }
+            }
+            int printMatrix = 0; //If we want to print diastance matrix
+
+            if (printMatrix == 1){
+                for (int i = 0; i <= NoOfCustomers; i++) {
+                    for (int j = 0; j <= NoOfCustomers; j++) {
+                        System.out.print(distanceMatrix[i][j] + "  ");
+                    }
+                    System.out.println();
+                }
+            }
+            Distances = new MatrixDistance(distanceMatrix);
+        }
+
+        //Compute the greedy Solution
+        System.out.println("Attempting to resolve Vehicle Routing Problem (VRP) for "+NoOfCustomers+
+                " Customers and "+NoOfVehicles+" Vehicles"+" with "+VehicleCap + " units of capacity\n");
+
+        Solution s = new Solution(NoOfCustomers, NoOfVehicles, VehicleCap);
+        s.CandidateListSize = CandidateListSize;
+        s.Threads = Threads;
+        s.SpatialGreedy = true; //Distances are rounded Euclidean distances
+
+        try {
+            s.GreedySolution(Nodes, Distances);
+        } catch (IllegalStateException e) { //More demand than the vehicles can carry
+            System.out.println("\n" + e.getMessage());
+            return;
+        }
+
+        s.SolutionPrint("Greedy Solution");
+
+        draw.drawRoutes(s, "Greedy_Solution");
+
+        s.IntraRouteLocalSearch(Nodes, Distances);
+
+        s.SolutionPrint("Solution after Intra-Route Heuristic Neighborhood Search");
+
+        draw.drawRoutes(s, "Intra-Route");
+
+        s.GreedySolution(Nodes, Distances);
+
+        s.InterRouteLocalSearch(Nodes, Distances);
+
+        s.SolutionPrint("Solution after Inter-Route Heuristic Neighborhood Search");
+
+        draw.drawRoutes(s, "Inter-Route");
+
+        s.GreedySolution(Nodes, Distances);
+
+        s.TabuSearch(TABU_Horizon, Distances);
+
+        s.SolutionPrint("Solution After Tabu Search");
+
+        draw.drawRoutes(s, "TABU_Solution");
+
+        Solution Best = s;
+        if (PortfolioStarts > 1)
+        {
+            Portfolio P = new Portfolio();
+            P.Starts = PortfolioStarts;
+            P.TabuHorizon = TABU_Horizon;
+            P.CandidateListSize = CandidateListSize;
+            P.SpatialGreedy = true;
+            try {
+                Solution ps = P.Solve(Nodes, Distances, NoOfCustomers, NoOfVehicles, VehicleCap);
+                ps.SolutionPrint("Best of " + PortfolioStarts + " Parallel Greedy + Tabu Solves (start " + P.BestStart
+                        + ", horizon " + P.Horizon(P.BestStart) + ")");
+                if (ps.Cost < Best.Cost) Best = ps;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IllegalStateException e) { //A randomised start may need more vehicles than the plain one
+                System.out.println(e.getMessage() + ((e.getCause() != null) ? ": " + e.getCause().getMessage() : ""));
+            }
+        }
+
+        if (Instance != null)
+        {
+            String SolutionFile = (Instance.Name.isEmpty() ? "solution" : Instance.Name) + ".sol";
+            try {
+                CvrpLib.WriteSolution(Best, Instance, Paths.get(SolutionFile));
+            } catch (IOException e) {
+                System.out.println("Cannot write " + SolutionFile + ": " + e.getMessage());
+            }
+        }
+    }
+}
+
+class draw
+{
+    public static void  drawRoutes(Solution s, String fileName) {
+
+        int VRP_Y = 800;
+        int VRP_INFO = 200;
+        int X_GAP = 600;
+        int margin = 30;
+        int marginNode = 1;
+
+
+        int XXX = VRP_INFO + X_GAP;
+        int YYY = VRP_Y;
+
+
+        BufferedImage output = new BufferedImage(XXX, YYY, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = output.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, XXX, YYY);
+        g.setColor(Color.BLACK);
+
+
+        double minX = Double.MAX_VALUE;
+        double maxX = Double.MIN_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxY = Double.MIN_VALUE;
+
+        for (int k = 0; k < s.Vehicles.length ; k++)
+        {
+            for (int i = 0; i < s.Vehicles[k].RouteLength; i++)
+            {
+                int n = s.Vehicles[k].Route[i];
+                if (s.NodeX[n] > maxX) maxX = s.NodeX[n];
+                if (s.NodeX[n] < minX) minX = s.NodeX[n];
+                if (s.NodeY[n] > maxY) maxY = s.NodeY[n];
+                if (s.NodeY[n] < minY) minY = s.NodeY[n];
+
+            }
+        }
+
+        int mX = XXX - 2 * margin;
+        int mY = VRP_Y - 2 * margin;
+
+        int A, B;
+        if ((maxX - minX) > (maxY - minY))
+        {
+            A = mX;
+            B = (int)((double)(A) * (maxY - minY) / (maxX - minX));
+            if (B > mY)
+            {
+                B = mY;
+                A = (int)((double)(B) * (maxX - minX) / (maxY - minY));
+            }
+        }
+        else
+        {
+            B = mY;
+            A = (int)((double)(B) * (maxX - minX) / (maxY - minY));
+            if (A > mX)
+            {
+                A = mX;
+                B = (int)((double)(A) * (maxY - minY) / (maxX - minX));
+            }
+        }
+
+        // Draw Route
+        for (int i = 0; i < s.Vehicles.length ; i++)
+        {
+            for (int j = 1; j < s.Vehicles[i].RouteLength ; j++) {
+                int n;
+                n = s.Vehicles[i].Route[j-1];
+
+                int ii1 = (int) ((double) (A) * ((s.NodeX[n] - minX) / (maxX - minX) - 0.5) + (double) mX / 2) + margin;
+                int jj1 = (int) ((double) (B) * (0.5 - (s.NodeY[n] - minY) / (maxY - minY)) + (double) mY / 2) + margin;
+
+                n = s.Vehicles[i].Route[j];
+                int ii2 = (int) ((double) (A) * ((s.NodeX[n] - minX) / (maxX - minX) - 0.5) + (double) mX / 2) + margin;
+                int jj2 = (int) ((double) (B) * (0.5 - (s.NodeY[n] - minY) / (maxY - minY)) + (double) mY / 2) + margin;
+
+
+                g.drawLine(ii1, jj1, ii2, jj2);
+            }
+        }
+
+        for (int i = 0; i < s.Vehicles.length ; i++)
+        {
+            for (int j = 0; j < s.Vehicles[i].RouteLength ; j++) {
+
+                int n = s.Vehicles[i].Route[j];
+
+                int ii = (int) ((double) (A) * ((s.NodeX[n]  - minX) / (maxX - minX) - 0.5) + (double) mX / 2) + margin;
+                int jj = (int) ((double) (B) * (0.5 - (s.NodeY[n] - minY) / (maxY - minY)) + (double) mY / 2) + margin;
+                if (i != 0) {
+                    g.fillOval(ii - 3 * marginNode, jj - 3 * marginNode, 6 * marginNode, 6 * marginNode); //2244
+                    String id = Integer.toString(n);
+                    g.drawString(id, ii + 6 * marginNode, jj + 6 * marginNode); //88
+                } else {
+                    g.fillRect(ii - 3 * marginNode, jj - 3 * marginNode, 6 * marginNode, 6 * marginNode);  //4488
+                    String id = Integer.toString(n);
+                    g.drawString(id, ii + 6 * marginNode, jj + 6 * marginNode); //88
+                }
+            }
+
+        }
+
+        String cst = "VRP solution for "+s.NoOfCustomers+ " customers with Cost: " + s.Cost;
+        g.drawString(cst, 10, 10);
+
+        fileName = fileName + ".png";
+        File f = new File(fileName);
+        try
+        {
+            ImageIO.write(output, "PNG", f);
+        } catch (IOException ex) {
+            //  Logger.getLogger(s.class.getName()).log(Level.SEVERE, null, ex);
+        }
+
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+/*
+ * Created by Nikolaos Michail
+ */
+
+package vrp;
+
+import java.util.Arrays;
+
+class Vehicle
+{
+    public int VehId;
+    public int[] Route = new int[16]; //Node ids, only the first RouteLength entries are used
+    public int RouteLength;
+    public int capacity;
+    public int load;
+    public int CurLoc;
+    public boolean Closed;
+    private int[] Prefix = new int[17]; //Prefix[k] = demand of Route[0..k-1], rebuilt after the route changed
+    private boolean PrefixStale = true;
+
+    public Vehicle(int id, int cap)
+    {
+        this.VehId = id;
+        this.capacity = cap;
+        this.load = 0;
+        this.CurLoc = 0; //In depot Initially
+        this.Closed = false;
+        this.RouteLength = 0;
+    }
+
+    public void AddNode(int NodeId, int demand)//Add Customer to Vehicle Route
+    {
+        EnsureRouteCapacity(RouteLength + 1);
+        Route[RouteLength++] = NodeId;
+        this.load +=  demand;
+        this.CurLoc = NodeId;
+        PrefixStale = true;
+    }
+
+    public void InsertNode(int Index, int NodeId)//Insert at Index shifting the rest of the route (load is not touched)
+    {
+        EnsureRouteCapacity(RouteLength + 1);
+        System.arraycopy(Route, Index, Route, Index + 1, RouteLength - Index);
+        Route[Index] = NodeId;
+        RouteLength++;
+        PrefixStale = true;
+    }
+
+    public int RemoveNode(int Index)//Remove the node at Index and return its id (load is not touched)
+    {
+        int NodeId = Route[Index];
+        System.arraycopy(Route, Index + 1, Route, Index, RouteLength - Index - 1);
+        RouteLength--;
+        PrefixStale = true;
+        return NodeId;
+    }
+
+    public void Clear() //Empty route, back in the depot
+    {
+        this.RouteLength = 0;
+        this.load = 0;
+        this.CurLoc = 0;
+        this.Closed = false;
+        PrefixStale = true;
+    }
+
+    public void ReplaceTail(int From, int[] Tail, int Length) //Route[From..] becomes Tail[0..Length-1] (load is not touched)
+    {
+        EnsureRouteCapacity(From + Length);
+        System.arraycopy(Tail, 0, Route, From, Length);
+        RouteLength = From + Length;
+        PrefixStale = true;
+    }
+
+    public void RouteEdited() //Route entries were written directly
+    {
+        PrefixStale = true;
+    }
+
+    public int[] PrefixLoad(int[] Demand) //Load of the first k nodes is PrefixLoad[k], O(1) capacity checks for segment moves
+    {
+        if (PrefixStale)
+        {
+            if (Prefix.length < RouteLength + 1)
+                Prefix = new int[Route.length + 1];
+            for (int k = 0; k < RouteLength; k++) {
+                Prefix[k + 1] = Prefix[k] + Demand[Route[k]];
+            }
+            PrefixStale = false;
+        }
+        return Prefix;
+    }
+
+    public void CopyRoute(Vehicle other)
+    {
+        EnsureRouteCapacity(other.RouteLength);
+        System.arraycopy(other.Route, 0, Route, 0, other.RouteLength);
+        this.RouteLength = other.RouteLength;
+        this.load = other.load;
+        this.CurLoc = other.CurLoc;
+        PrefixStale = true;
+    }
+
+    private void EnsureRouteCapacity(int size)
+    {
+        if (size > Route.length)
+        {
+            Route = Arrays.copyOf(Route, Math.max(size, Route.length * 2));
+        }
+    }
+
+    public boolean CheckIfFits(int dem) //Check if we have Capacity Violation
+    {
+        return ((load + dem <= capacity));
+    }
+
+}
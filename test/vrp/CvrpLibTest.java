@@ -0,0 +1,115 @@
+package vrp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class CvrpLibTest
+{
+    //Depot listed third, a decimal coordinate, Windows line ends and the fleet only in the name
+    private static final String Small =
+            "NAME : T-n5-k2\r\n" +
+            "COMMENT : (test instance)\r\n" +
+            "TYPE : CVRP\r\n" +
+            "DIMENSION : 5\r\n" +
+            "EDGE_WEIGHT_TYPE : EUC_2D\r\n" +
+            "CAPACITY : 10\r\n" +
+            "NODE_COORD_SECTION\r\n" +
+            " 1 0 0\r\n" +
+            " 2 3 4\r\n" +
+            " 3 10 10\r\n" +
+            " 4 6.6 8\r\n" +
+            " 5 20 0\r\n" +
+            "DEMAND_SECTION\r\n" +
+            "1 4\r\n" +
+            "2 5\r\n" +
+            "3 0\r\n" +
+            "4 6\r\n" +
+            "5 3\r\n" +
+            "DEPOT_SECTION\r\n" +
+            " 3\r\n" +
+            " -1\r\n" +
+            "EOF\r\n";
+
+    @Rule
+    public TemporaryFolder Folder = new TemporaryFolder();
+
+    @Test
+    public void LoadsHeaderAndMovesTheDepotFirst() throws IOException
+    {
+        CvrpInstance Inst = Load(Small);
+        assertEquals("T-n5-k2", Inst.Name);
+        assertEquals(5, Inst.Dimension);
+        assertEquals(10, Inst.Capacity);
+        assertEquals(2, Inst.Vehicles);
+        assertEquals(3, Inst.DepotFileId);
+        assertArrayEquals(new int[] {10, 0, 3, 7, 20}, Inst.NodeX);
+        assertArrayEquals(new int[] {10, 0, 4, 8, 0}, Inst.NodeY);
+        assertArrayEquals(new int[] {0, 4, 5, 6, 3}, Inst.Demand);
+        assertEquals(18, Inst.TotalDemand());
+        assertEquals(2, Inst.FileIndex(0));
+        assertEquals(0, Inst.FileIndex(1));
+        assertEquals(3, Inst.FileIndex(3));
+    }
+
+    @Test
+    public void SolutionFileRoundTrip() throws IOException
+    {
+        CvrpInstance Inst = Load(Small);
+        DistanceProvider Distances = Inst.Distances();
+        Solution s = Instances.NewSolution(Inst, 0);
+        s.GreedySolution(Inst.ToNodes(), Distances);
+        s.TabuSearch(10, Distances, StopCondition.Iterations(20));
+
+        Path File = Folder.getRoot().toPath().resolve("T-n5-k2.sol");
+        CvrpLib.WriteSolution(s, Inst, File);
+        double[] Cost = new double[1];
+        ArrayList<int[]> Routes = CvrpLib.LoadSolution(Inst, File, Cost);
+
+        assertEquals(s.Cost, Cost[0], 1e-9);
+        StringBuilder Expected = new StringBuilder(), Actual = new StringBuilder();
+        for (Vehicle v : s.Vehicles) {
+            for (int k = 0; k < v.RouteLength; k++) if (v.Route[k] != 0) Expected.append(v.Route[k]).append(' ');
+        }
+        for (int[] Route : Routes) {
+            for (int Customer : Route) Actual.append(Customer).append(' ');
+        }
+        assertEquals(Expected.toString(), Actual.toString());
+    }
+
+    @Test
+    public void RejectsMissingSections()
+    {
+        String NoDemand = Small.substring(0, Small.indexOf("DEMAND_SECTION")) + "EOF\r\n";
+        try {
+            Load(NoDemand);
+            fail("Loaded an instance without demands");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("DEMAND_SECTION"));
+        }
+    }
+
+    @Test
+    public void RejectsOtherEdgeWeights()
+    {
+        try {
+            Load(Small.replace("EUC_2D", "GEO"));
+            fail("Loaded GEO distances");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("GEO"));
+        }
+    }
+
+    private static CvrpInstance Load(String Text) throws IOException
+    {
+        return CvrpLib.Load(ByteBuffer.wrap(Text.getBytes(StandardCharsets.US_ASCII)), "test");
+    }
+}
@@ -0,0 +1,54 @@
+package vrp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DynamicUpdatesTest
+{
+    //After every cancellation and insertion the cost, the loads and Routed must agree with the routes
+
+    @Test
+    public void RemoveAndInsertKeepTheSolutionConsistent()
+    {
+        for (int CandidateListSize : new int[] {0, 20}) Events(CandidateListSize);
+    }
+
+    private static void Events(int CandidateListSize)
+    {
+        int Customers = 400, Events = 60;
+        CvrpInstance Inst = Instances.Random(Customers, 3);
+        DistanceProvider Distances = Inst.Distances();
+        Solution s = Instances.NewSolution(Inst, CandidateListSize, Inst.FleetSize() + Events);
+        s.GreedySolution(Inst.ToNodes(), Distances);
+        s.TabuSearch(10, Distances, StopCondition.Iterations(200));
+        Instances.Check(s, Distances);
+
+        List<Integer> Ids = new ArrayList<>();
+        for (int i = 1; i <= Customers; i++) Ids.add(i);
+        Collections.shuffle(Ids, new Random(3));
+
+        double Expected = s.Cost;
+        for (int e = 0; e < Events; e++) {
+            Expected += s.RemoveCustomer(Ids.get(e), Distances);
+            assertFalse(s.Routed[Ids.get(e)]);
+            Instances.Check(s, Distances);
+        }
+        assertEquals(Expected, s.Cost, 1e-6 * Expected);
+
+        List<CustomerEvent> Inserts = new ArrayList<>();
+        for (int e = 0; e < Events; e++) Inserts.add(CustomerEvent.Insert(Ids.get(e)));
+        Expected += s.ApplyEvents(Inserts, Distances);
+        assertEquals(Expected, s.Cost, 1e-6 * Expected);
+        for (int i = 1; i <= Customers; i++) assertTrue(s.Routed[i]);
+        Instances.Check(s, Distances);
+
+        //The candidate lists built for the insertions must not make later searches granular
+        assertEquals(CandidateListSize, s.CandidateListSize);
+    }
+}
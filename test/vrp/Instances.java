@@ -0,0 +1,87 @@
+package vrp;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+final class Instances
+{
+    //Seeded instances and route checks shared by the tests
+
+    private Instances()
+    {
+    }
+
+    static CvrpInstance Random(int Customers, long Seed) //Customers on a square that grows with their number, depot in the middle
+    {
+        Random Ran = new Random(Seed);
+        int Span = (int) Math.round(100 * Math.sqrt(Customers / 30.0));
+        CvrpInstance Inst = new CvrpInstance();
+        Inst.Name = "random-" + Customers;
+        Inst.Dimension = Customers + 1;
+        Inst.Capacity = 50;
+        Inst.DepotFileId = 1;
+        Inst.NodeX = new int[Inst.Dimension];
+        Inst.NodeY = new int[Inst.Dimension];
+        Inst.Demand = new int[Inst.Dimension];
+        Inst.NodeX[0] = Inst.NodeY[0] = Span / 2;
+        for (int i = 1; i < Inst.Dimension; i++) {
+            Inst.NodeX[i] = Ran.nextInt(Span);
+            Inst.NodeY[i] = Ran.nextInt(Span);
+            Inst.Demand[i] = 4 + Ran.nextInt(7);
+        }
+        return Inst;
+    }
+
+    static Solution NewSolution(CvrpInstance Inst, int CandidateListSize)
+    {
+        return NewSolution(Inst, CandidateListSize, Inst.FleetSize());
+    }
+
+    static Solution NewSolution(CvrpInstance Inst, int CandidateListSize, int Vehicles)
+    {
+        Solution s = new Solution(Inst.Dimension - 1, Vehicles, Inst.Capacity);
+        s.CandidateListSize = CandidateListSize;
+        s.SpatialGreedy = true;
+        s.WriteTraces = false;
+        s.TabuRan = new Random(5);
+        return s;
+    }
+
+    static String Routes(Solution s)
+    {
+        StringBuilder Out = new StringBuilder();
+        for (Vehicle v : s.Vehicles) {
+            for (int k = 0; k < v.RouteLength; k++) Out.append(v.Route[k]).append(' ');
+            Out.append('|');
+        }
+        return Out.toString();
+    }
+
+    static double RoutesCost(Solution s, DistanceProvider CostMatrix)
+    {
+        double Cost = 0;
+        for (Vehicle v : s.Vehicles) {
+            for (int k = 0; k + 1 < v.RouteLength; k++) Cost += CostMatrix.Distance(v.Route[k], v.Route[k + 1]);
+        }
+        return Cost;
+    }
+
+    static void Check(Solution s, DistanceProvider Distances) //Cost, loads and Routed agree with the routes
+    {
+        int[] Seen = new int[s.Routed.length];
+        for (Vehicle v : s.Vehicles) {
+            int Load = 0;
+            for (int k = 0; k < v.RouteLength; k++) {
+                Load += s.Demand[v.Route[k]];
+                Seen[v.Route[k]]++;
+            }
+            assertEquals(Load, v.load);
+            assertTrue(v.load <= v.capacity);
+        }
+        for (int i = 1; i < s.Routed.length; i++) assertEquals("customer " + i, s.Routed[i] ? 1 : 0, Seen[i]);
+        double Cost = RoutesCost(s, Distances);
+        assertEquals(Cost, s.Cost, 1e-6 * Cost);
+    }
+}
@@ -0,0 +1,95 @@
+package vrp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class MappedDistanceTest
+{
+    //A distance file must give back what was written, and damaged or asymmetric input must be refused
+
+    @Rule
+    public TemporaryFolder Folder = new TemporaryFolder();
+
+    @Test
+    public void RoundTrip() throws IOException
+    {
+        CvrpInstance Inst = Instances.Random(60, 3);
+        DistanceProvider Euclidean = new EuclideanDistance(Inst.NodeX, Inst.NodeY, false);
+        for (boolean Lower : new boolean[] {false, true}) {
+            for (boolean Ints : new boolean[] {false, true}) {
+                Path File = Folder.getRoot().toPath().resolve((Lower ? "triangle" : "full") + (Ints ? "-int" : "") + ".dist");
+                MappedDistance.Write(Euclidean, File, Ints, Lower);
+                MappedDistance Mapped = MappedDistance.Open(File);
+                assertEquals(Inst.Dimension, Mapped.Dimension());
+                for (int i = 0; i < Inst.Dimension; i++) {
+                    for (int j = 0; j < Inst.Dimension; j++) {
+                        double d = Euclidean.Distance(i, j);
+                        assertEquals(File + " " + i + "-" + j, Ints ? Math.round(d) : (float) d, Mapped.Distance(i, j), 0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void DamagedDistancesAreRefused() throws IOException
+    {
+        Path File = Written();
+        byte[] Bytes = Files.readAllBytes(File);
+        Bytes[MappedDistance.HeaderBytes + 101] ^= 1;
+        Files.write(File, Bytes);
+        Refused(File, "damaged distances");
+    }
+
+    @Test
+    public void DamagedHeaderIsRefused() throws IOException
+    {
+        Path File = Written();
+        byte[] Bytes = Files.readAllBytes(File);
+        Bytes[8] ^= 1; //The dimension
+        Files.write(File, Bytes);
+        Refused(File, "damaged header");
+    }
+
+    @Test
+    public void AsymmetricMatrixIsRefused() throws IOException
+    {
+        Path Text = Folder.getRoot().toPath().resolve("matrix.txt");
+        Path Target = Folder.getRoot().toPath().resolve("matrix.dist");
+        Files.write(Text, "3\n0 1 2\n1 0 3\n2 4 0\n".getBytes(StandardCharsets.US_ASCII));
+        try {
+            MappedDistance.main(new String[] {Text.toString(), Target.toString()});
+            fail("An asymmetric matrix was written");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("from 1 to 2 differs"));
+        }
+        assertFalse(Files.exists(Target));
+        assertFalse(Files.exists(Target.resolveSibling("matrix.dist.tmp")));
+    }
+
+    private Path Written() throws IOException
+    {
+        CvrpInstance Inst = Instances.Random(60, 3);
+        Path File = Folder.getRoot().toPath().resolve("distances.dist");
+        MappedDistance.Write(new EuclideanDistance(Inst.NodeX, Inst.NodeY, true), File, false, true);
+        return File;
+    }
+
+    private static void Refused(Path File, String Reason)
+    {
+        try {
+            MappedDistance.Open(File);
+            fail(File + " was opened");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(Reason));
+        }
+    }
+}
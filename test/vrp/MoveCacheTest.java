@@ -0,0 +1,42 @@
+package vrp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MoveCacheTest
+{
+    //The cached best relocate per route pair must pick the same move as a full evaluation every iteration
+
+    @Test
+    public void CachedSearchMatchesFullEvaluation()
+    {
+        Same(0);
+    }
+
+    @Test
+    public void CachedGranularSearchMatchesFullEvaluation()
+    {
+        Same(20);
+    }
+
+    private static void Same(int CandidateListSize)
+    {
+        CvrpInstance Inst = Instances.Random(300, 7);
+        DistanceProvider Distances = Inst.Distances();
+        Solution Cached = Search(Inst, Distances, CandidateListSize, true);
+        Solution Full = Search(Inst, Distances, CandidateListSize, false);
+        assertEquals(Instances.Routes(Full), Instances.Routes(Cached));
+        assertEquals(Full.Cost, Cached.Cost, 1e-9);
+        assertEquals(Instances.RoutesCost(Cached, Distances), Cached.Cost, 1e-6);
+    }
+
+    private static Solution Search(CvrpInstance Inst, DistanceProvider Distances, int CandidateListSize, boolean UseMoveCache)
+    {
+        Solution s = Instances.NewSolution(Inst, CandidateListSize);
+        s.UseMoveCache = UseMoveCache;
+        s.GreedySolution(Inst.ToNodes(), Distances);
+        s.TabuSearch(10, Distances, StopCondition.Iterations(500));
+        return s;
+    }
+}
@@ -0,0 +1,23 @@
+package vrp;
+
+import org.junit.Test;
+
+public class MoveOperatorsTest
+{
+    //The O(1) deltas of every operator, summed into Solution.Cost by the search, must match a full recomputation
+
+    @Test
+    public void AllOperatorsKeepTheCost()
+    {
+        CvrpInstance Inst = Instances.Random(200, 13);
+        DistanceProvider Distances = Inst.Distances();
+        for (int CandidateListSize : new int[] {0, 20}) {
+            Solution s = Instances.NewSolution(Inst, CandidateListSize);
+            s.Operators = MoveOperators.All;
+            s.GreedySolution(Inst.ToNodes(), Distances);
+            Instances.Check(s, Distances);
+            s.TabuSearch(10, Distances, StopCondition.Iterations(500));
+            Instances.Check(s, Distances);
+        }
+    }
+}
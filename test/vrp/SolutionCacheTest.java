@@ -0,0 +1,138 @@
+package vrp;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SolutionCacheTest
+{
+    @Rule
+    public TemporaryFolder Folder = new TemporaryFolder();
+
+    private Path Directory;
+    private CvrpInstance Inst;
+    private Solution Solved;
+
+    @Before
+    public void Solve() throws IOException
+    {
+        Directory = Folder.newFolder("cache").toPath();
+        Inst = Instances.Random(200, 9);
+        Solved = Instances.NewSolution(Inst, 20);
+        Solved.GreedySolution(Inst.ToNodes(), Inst.Distances());
+        Solved.TabuSearch(10, Inst.Distances(), StopCondition.Iterations(300));
+    }
+
+    @Test
+    public void EmptyCacheMisses() throws IOException
+    {
+        SolutionCache Cache = new SolutionCache(4, null);
+        Solution s = Instances.NewSolution(Inst, 20);
+        assertEquals(SolutionCache.Miss, Cache.Lookup(s, Inst.ToNodes(), Inst.Distances()));
+        assertEquals(1, Cache.Misses.get());
+        assertTrue(s.UnassignedCustomerExists());
+    }
+
+    @Test
+    public void SameInstanceIsExact() throws IOException
+    {
+        SolutionCache Cache = new SolutionCache(4, null);
+        Cache.Store(Solved);
+        Solution s = Instances.NewSolution(Inst, 20);
+        assertEquals(SolutionCache.Exact, Cache.Lookup(s, Inst.ToNodes(), Inst.Distances()));
+        assertEquals(Instances.Routes(Solved), Instances.Routes(s));
+        assertEquals(Solved.Cost, s.Cost, 1e-9);
+    }
+
+    @Test
+    public void ReorderedCustomersAreExact() throws IOException
+    {
+        SolutionCache Cache = new SolutionCache(4, null);
+        Cache.Store(Solved);
+        CvrpInstance Shuffled = Copy(Inst);
+        Random Ran = new Random(1);
+        for (int i = Shuffled.Dimension - 1; i > 1; i--) {
+            int j = 1 + Ran.nextInt(i);
+            Swap(Shuffled.NodeX, i, j);
+            Swap(Shuffled.NodeY, i, j);
+            Swap(Shuffled.Demand, i, j);
+        }
+        Solution s = Instances.NewSolution(Shuffled, 20);
+        assertEquals(SolutionCache.Exact, Cache.Lookup(s, Shuffled.ToNodes(), Shuffled.Distances()));
+        assertFalse(s.UnassignedCustomerExists());
+        assertEquals(Solved.Cost, s.Cost, 1e-6);
+        Instances.Check(s, Shuffled.Distances());
+    }
+
+    @Test
+    public void ChangedCustomersAreNear() throws IOException
+    {
+        SolutionCache Cache = new SolutionCache(4, null);
+        Cache.Store(Solved);
+        CvrpInstance Changed = Copy(Inst);
+        for (int i = 1; i < Changed.Dimension; i += 10) { //One customer in ten moves elsewhere
+            Changed.NodeX[i] = (Changed.NodeX[i] + 37) % 250;
+            Changed.NodeY[i] = (Changed.NodeY[i] + 53) % 250;
+        }
+        Solution s = Instances.NewSolution(Changed, 20);
+        assertEquals(SolutionCache.Near, Cache.Lookup(s, Changed.ToNodes(), Changed.Distances()));
+        assertEquals(1, Cache.NearHits.get());
+        assertFalse(s.UnassignedCustomerExists());
+        Instances.Check(s, Changed.Distances());
+
+        //The repaired routes are the start of the search, which must find them consistent
+        double Seeded = s.Cost;
+        s.TabuSearch(10, Changed.Distances(), StopCondition.Iterations(300));
+        Instances.Check(s, Changed.Distances());
+        assertTrue(s.Cost <= Seeded + 1e-6);
+    }
+
+    @Test
+    public void OtherCapacityMisses() throws IOException
+    {
+        SolutionCache Cache = new SolutionCache(4, null);
+        Cache.Store(Solved);
+        CvrpInstance Other = Copy(Inst);
+        Other.Capacity = 60;
+        Solution s = Instances.NewSolution(Other, 20);
+        assertEquals(SolutionCache.Miss, Cache.Lookup(s, Other.ToNodes(), Other.Distances()));
+        assertTrue(s.UnassignedCustomerExists());
+    }
+
+    @Test
+    public void DiskTierSurvivesANewCache() throws IOException
+    {
+        new SolutionCache(4, Directory).Store(Solved);
+        SolutionCache Cache = new SolutionCache(4, Directory);
+        Solution s = Instances.NewSolution(Inst, 20);
+        assertEquals(SolutionCache.Exact, Cache.Lookup(s, Inst.ToNodes(), Inst.Distances()));
+        assertEquals(Instances.Routes(Solved), Instances.Routes(s));
+    }
+
+    private static CvrpInstance Copy(CvrpInstance Inst)
+    {
+        CvrpInstance c = new CvrpInstance();
+        c.Name = Inst.Name;
+        c.Dimension = Inst.Dimension;
+        c.Capacity = Inst.Capacity;
+        c.DepotFileId = Inst.DepotFileId;
+        c.NodeX = Inst.NodeX.clone();
+        c.NodeY = Inst.NodeY.clone();
+        c.Demand = Inst.Demand.clone();
+        return c;
+    }
+
+    private static void Swap(int[] a, int i, int j)
+    {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
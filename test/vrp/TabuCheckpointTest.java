@@ -0,0 +1,57 @@
+package vrp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class TabuCheckpointTest
+{
+    //A search killed after a checkpoint and resumed from it must end with the routes of an uninterrupted search
+
+    @Rule
+    public TemporaryFolder Folder = new TemporaryFolder();
+
+    @Test
+    public void ResumeFromJournal() throws Exception
+    {
+        Resume(300, 20, 400, false);
+    }
+
+    @Test
+    public void ResumeFromBestRouteSnapshot() throws Exception
+    {
+        //Long enough without improvement that the journal is replaced by a copy of the best routes
+        Resume(100, 0, 3000, true);
+    }
+
+    private void Resume(int Customers, int CandidateListSize, int Every, boolean Snapshot) throws Exception
+    {
+        CvrpInstance Inst = Instances.Random(Customers, 11);
+        Node[] Nodes = Inst.ToNodes();
+        DistanceProvider Distances = Inst.Distances();
+
+        Solution Full = Instances.NewSolution(Inst, CandidateListSize);
+        Full.GreedySolution(Nodes, Distances);
+        Full.TabuSearch(10, Distances, StopCondition.Iterations(2 * Every));
+
+        String File = Folder.getRoot().toPath().resolve("tabu.ck").toString();
+        Solution Killed = Instances.NewSolution(Inst, CandidateListSize);
+        Killed.GreedySolution(Nodes, Distances);
+        Killed.Checkpoint = new TabuCheckpoint(File);
+        Killed.Checkpoint.EveryIterations = Every;
+        Killed.StartTabuSearch(Distances);
+        Killed.ContinueTabuSearch(10, Distances, StopCondition.Iterations(Every + 5)); //Killed a few iterations after the checkpoint
+        TabuCheckpoint.AwaitWritten();
+        assertEquals(1, Killed.Checkpoint.Written);
+        assertEquals(Snapshot, TabuCheckpoint.Load(File, Nodes).JournalLength == -2);
+
+        Solution Resumed = TabuCheckpoint.Resume(File, Nodes, Distances, StopCondition.Iterations(2 * Every));
+        assertEquals(Instances.Routes(Full), Instances.Routes(Resumed));
+        assertEquals(Full.Cost, Resumed.Cost, 1e-9);
+        assertEquals(2 * Every, Resumed.TabuIteration);
+    }
+}